@@ -26,6 +26,7 @@ export const AuthProvider = ({ children }) => {
       } catch (error) {
         console.error("Error parsing user data:", error);
         localStorage.removeItem("token");
+        localStorage.removeItem("refreshToken");
         localStorage.removeItem("user");
       }
     }
@@ -35,9 +36,10 @@ export const AuthProvider = ({ children }) => {
   const signin = async (email, password) => {
     try {
       const response = await authAPI.signin({ email, password });
-      const { token, userId, email: userEmail, role } = response;
+      const { token, refreshToken, userId, email: userEmail, role } = response;
 
       localStorage.setItem("token", token);
+      localStorage.setItem("refreshToken", refreshToken);
       const userData = { userId, email: userEmail, role };
       localStorage.setItem("user", JSON.stringify(userData));
       setUser(userData);
@@ -60,9 +62,10 @@ export const AuthProvider = ({ children }) => {
   const signup = async (userData) => {
     try {
       const response = await authAPI.signup(userData);
-      const { token, userId, email, role } = response;
+      const { token, refreshToken, userId, email, role } = response;
 
       localStorage.setItem("token", token);
+      localStorage.setItem("refreshToken", refreshToken);
       const user = { userId, email, role };
       localStorage.setItem("user", JSON.stringify(user));
       setUser(user);
@@ -97,9 +100,10 @@ export const AuthProvider = ({ children }) => {
   const signupAdmin = async (userData) => {
     try {
       const response = await authAPI.signupAdmin(userData);
-      const { token, userId, email, role } = response;
+      const { token, refreshToken, userId, email, role } = response;
 
       localStorage.setItem("token", token);
+      localStorage.setItem("refreshToken", refreshToken);
       const user = { userId, email, role };
       localStorage.setItem("user", JSON.stringify(user));
       setUser(user);
@@ -132,7 +136,12 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revoke the tokens server-side; the local session ends regardless
+    authAPI
+      .logout(localStorage.getItem("refreshToken"), localStorage.getItem("token"))
+      .catch((error) => console.error("Logout Error:", error));
     localStorage.removeItem("token");
+    localStorage.removeItem("refreshToken");
     localStorage.removeItem("user");
     setUser(null);
   };
@@ -23,13 +23,48 @@ api.interceptors.request.use(
   }
 );
 
+// Access tokens are short-lived: on a 401 try once to get a new one with the
+// refresh token. Concurrent 401s share the same refresh request.
+let refreshPromise = null;
+
+const refreshAccessToken = async () => {
+  const refreshToken = localStorage.getItem("refreshToken");
+  if (!refreshToken) {
+    throw new Error("No refresh token");
+  }
+  const response = await axios.post(`${API_BASE_URL}/auth/refresh`, {
+    refreshToken,
+  });
+  localStorage.setItem("token", response.data.token);
+  localStorage.setItem("refreshToken", response.data.refreshToken);
+  return response.data.token;
+};
+
 // Add response interceptor to handle errors
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
-    if (error.response?.status === 401) {
+  async (error) => {
+    const original = error.config;
+    const isAuthCall = original?.url?.startsWith("/auth/");
+
+    if (error.response?.status === 401 && original && !original._retry && !isAuthCall) {
+      original._retry = true;
+      try {
+        refreshPromise = refreshPromise || refreshAccessToken();
+        const token = await refreshPromise;
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        // Refresh token missing, expired or already used: fall through to login
+      } finally {
+        refreshPromise = null;
+      }
+    }
+
+    if (error.response?.status === 401 && !isAuthCall) {
       // Token expired or invalid
       localStorage.removeItem("token");
+      localStorage.removeItem("refreshToken");
       localStorage.removeItem("user");
       window.location.href = "/login";
     }
@@ -56,6 +91,14 @@ export const authAPI = {
     const response = await api.post("/auth/signup-admin", data);
     return response.data;
   },
+
+  logout: async (refreshToken, token) => {
+    await api.post(
+      "/auth/logout",
+      { refreshToken },
+      { headers: token ? { Authorization: `Bearer ${token}` } : {} }
+    );
+  },
 };
 
 // ============================================================================
@@ -0,0 +1,124 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.repository.RevokedTokenRepository;
+import com.example.todo.security.JwtAuthenticationFilter;
+import com.example.todo.service.TokenRevocationService;
+import com.example.todo.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auth hot path: token generation, validation, one full JwtAuthenticationFilter pass
+ * and BCrypt verification. Reports throughput and the latency distribution (p99 from
+ * SampleTime); add "-prof gc" for allocation per operation.
+ *
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="AuthHotPathBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthHotPathBenchmark {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLong";
+    private static final String USER_ID = "507f1f77bcf86cd799439011";
+    private static final String EMAIL = "student@example.com";
+    private static final String ROLE = "USER";
+    private static final String PASSWORD = "password123";
+
+    // BCrypt work factor for bcryptMatches (each +1 doubles the cost)
+    @Param({"10"})
+    public int bcryptCost;
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private JwtAuthenticationFilter filter;
+    private BCryptPasswordEncoder encoder;
+    private String token;
+    private String passwordHash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = newJwtUtil(10_000);
+        // A zero-size cache means every validation verifies the signature again
+        uncachedJwtUtil = newJwtUtil(0);
+        token = jwtUtil.generateToken(USER_ID, EMAIL, ROLE);
+
+        TokenRevocationService revocations = new TokenRevocationService(
+                Mockito.mock(RevokedTokenRepository.class), new SimpleMeterRegistry(), 0.001, 10_000, 60_000);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", revocations);
+
+        encoder = new BCryptPasswordEncoder(bcryptCost);
+        passwordHash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(USER_ID, EMAIL, ROLE);
+    }
+
+    @Benchmark
+    public Boolean validateTokenCached() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Boolean validateTokenUncached() {
+        return uncachedJwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterAuthenticatedRequest() throws ServletException, IOException {
+        // doFilter() runs doFilterInternal() exactly as the servlet container would
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        // The filter only authenticates when the context is empty
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean bcryptMatches() {
+        return encoder.matches(PASSWORD, passwordHash);
+    }
+
+    private static JwtUtil newJwtUtil(long cacheMaxSize) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "expiration", 900_000L);
+        ReflectionTestUtils.setField(util, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(util, "fastCodecEnabled", true);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.util.JwtTokenCodec;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generic jjwt builder/parser with JwtTokenCodec for our fixed claim set.
+ *
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="JwtCodecBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtCodecBenchmark {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLong";
+    private static final String USER_ID = "507f1f77bcf86cd799439011";
+    private static final String EMAIL = "student@example.com";
+    private static final String ROLE = "USER";
+    private static final String TOKEN_ID = "3f2b8c1e-9a4d-4e7b-8c6a-1d2e3f4a5b6c";
+
+    private SecretKey key;
+    private JwtParser parser;
+    private JwtTokenCodec codec;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        codec = new JwtTokenCodec(key);
+        long now = System.currentTimeMillis() / 1000;
+        token = codec.encode(USER_ID, EMAIL, ROLE, now, now + 86_400, TOKEN_ID);
+    }
+
+    @Benchmark
+    public String generateJjwt() {
+        Date now = new Date();
+        return Jwts.builder()
+                .subject(USER_ID)
+                .claim("email", EMAIL)
+                .claim("role", ROLE)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 86_400_000L))
+                .id(TOKEN_ID)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public String generateCodec() {
+        long now = System.currentTimeMillis() / 1000;
+        return codec.encode(USER_ID, EMAIL, ROLE, now, now + 86_400, TOKEN_ID);
+    }
+
+    @Benchmark
+    public Claims parseJjwtPerCall() {
+        // What JwtUtil did before: derive the key and build a parser on every call
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims parseJjwtReusedParser() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims parseCodec() {
+        return codec.decode(token);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.todo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level read caches (Caffeine: size-bounded caches use W-TinyLFU admission).
+ *
+ * Each cache has its own Caffeine spec (cache.spec.*). Stats are always recorded, so
+ * Spring Boot binds hit/miss, size and eviction metrics for every cache (cache.gets,
+ * cache.evictions under /actuator/metrics); cache.load.duration is added below.
+ * spring.cache.type=none replaces all caches with no-ops, e.g. in tests.
+ *
+ * Caches are per instance: keep TTLs short enough for writes made on other instances.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String COURSES = "courses";
+    public static final String COURSE_LIST = "courseList";
+    public static final String USERS_BY_ID = "usersById";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> caffeineCacheSpecs(
+            @Value("${cache.spec.courses:maximumSize=10000,expireAfterWrite=10m}") String coursesSpec,
+            @Value("${cache.spec.course-list:maximumSize=1,expireAfterWrite=1m}") String courseListSpec,
+            @Value("${cache.spec.users-by-id:maximumSize=50000,expireAfterWrite=5m}") String usersByIdSpec) {
+        return cacheManager -> {
+            register(cacheManager, COURSES, coursesSpec);
+            register(cacheManager, COURSE_LIST, courseListSpec);
+            register(cacheManager, USERS_BY_ID, usersByIdSpec);
+        };
+    }
+
+    /**
+     * Micrometer only reports load time for Caffeine LoadingCaches. Our caches load through
+     * cache.get(key, loader) (@Cacheable sync = true), which Caffeine also times, so expose it.
+     */
+    @Bean
+    public MeterBinder cacheLoadDurationMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(name -> {
+            if (cacheManager.getCache(name) instanceof CaffeineCache caffeineCache) {
+                Cache<Object, Object> cache = caffeineCache.getNativeCache();
+                FunctionTimer.builder("cache.load.duration", cache,
+                                c -> c.stats().loadCount(),
+                                c -> c.stats().totalLoadTime(),
+                                TimeUnit.NANOSECONDS)
+                        .tag("cache", name)
+                        .description("Time spent loading values on cache misses")
+                        .register(registry);
+            }
+        });
+    }
+
+    private static void register(CaffeineCacheManager cacheManager, String name, String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(spec);
+        // Caffeine rejects a second recordStats(), so only add it when the spec does not
+        if (!spec.contains("recordStats")) {
+            builder.recordStats();
+        }
+        cacheManager.registerCustomCache(name, builder.build());
+    }
+}
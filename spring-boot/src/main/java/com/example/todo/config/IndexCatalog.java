@@ -0,0 +1,115 @@
+package com.example.todo.config;
+
+import com.example.todo.model.CourseDeletion;
+import com.example.todo.model.CourseEnrollment;
+import com.example.todo.model.CourseStats;
+import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import com.example.todo.model.RefreshToken;
+import com.example.todo.model.RevokedToken;
+import com.example.todo.model.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Every index the application relies on, in one place, with the queries it serves.
+ *
+ * MongoIndexInitializer creates them at startup and QueryPlanVerifier checks that the
+ * queries below actually use them. A new repository method or query that filters or
+ * sorts on other fields needs an entry here; QueryPlanVerifier picks up repository methods
+ * by itself, a query built in a service also needs a check in its serviceChecks().
+ */
+public final class IndexCatalog {
+
+    /**
+     * An index of one collection and what it is for (also used as its log name).
+     */
+    public record Entry(Class<?> entity, Index index, String usedBy) {
+    }
+
+    public static final List<Entry> INDEXES = List.of(
+            // users
+            new Entry(User.class, asc("email").unique(),
+                    "Signup (duplicate emails), UserRepository.findCredentialsByEmail / findEmailsIn"),
+
+            // refresh_tokens
+            new Entry(RefreshToken.class, asc("tokenHash").unique(),
+                    "RefreshTokenService.consume, RefreshTokenRepository.findByTokenHash / revokeIfActive"),
+            new Entry(RefreshToken.class, asc("userId"),
+                    "RefreshTokenRepository.revokeAllByUserId"),
+            // TTL: Mongo deletes refresh tokens once expiresAt has passed
+            new Entry(RefreshToken.class, asc("expiresAt").expire(Duration.ZERO),
+                    "TTL"),
+
+            // revoked_tokens; TTL: a revoked access token only needs to be remembered until it would expire anyway
+            new Entry(RevokedToken.class, asc("expiresAt").expire(Duration.ZERO),
+                    "TTL, RevokedTokenRepository.streamActiveIds / countByExpiresAtAfter"),
+
+            // posts
+            new Entry(Post.class, asc("courseId"),
+                    "CourseDeletionService (posts of a course), CourseStatsService.reconcile"),
+            // _id: tie-breaker of the keyset-paginated thread
+            new Entry(Post.class, asc("discussionId").on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                    "PostRepository.findByDiscussionId / findByDiscussionIdOrderByCreatedAtAsc / findVersionsByDiscussionId, "
+                            + "PostService.getPostsPage, DiscussionService.getDiscussionThread, latest post of a discussion, CourseExportService"),
+
+            // discussions; the compound indexes starting with courseId also serve courseId alone
+            new Entry(Discussion.class, asc("courseId").on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC),
+                    "DiscussionRepository.findByCourseId / findVersionsByCourseId, discussions of enrolled courses by recency, CourseExportService"),
+            new Entry(Discussion.class, desc("createdAt").on("_id", Sort.Direction.DESC),
+                    "All discussions by recency (admins)"),
+            new Entry(Discussion.class, asc("courseId").on("lastPostAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC),
+                    "DiscussionService.getActiveDiscussionsPage"),
+
+            // course_enrollments; unique: a user is enrolled in a course at most once
+            new Entry(CourseEnrollment.class, asc("courseId").on("userId", Sort.Direction.ASC).unique(),
+                    "CourseEnrollmentRepository.findByCourseId / findByCourseIdAndUserId / existsByCourseIdAndUserId, CourseExportService"),
+            new Entry(CourseEnrollment.class, asc("userId").on("courseId", Sort.Direction.ASC),
+                    "CourseEnrollmentRepository.findByUserId, EnrollmentService.getEnrolledCoursesPage / getEnrolledCourseIds"),
+
+            // course_stats
+            new Entry(CourseStats.class, desc("lastActivityAt"),
+                    "CourseStatsService.getAllStats by activity"),
+
+            // course_deletions
+            // Equality, sort, range: status in (PENDING, RUNNING), oldest first, leaseUntil <= now
+            new Entry(CourseDeletion.class, asc("status").on("createdAt", Sort.Direction.ASC).on("leaseUntil", Sort.Direction.ASC),
+                    "CourseDeletionService claim query"),
+            new Entry(CourseDeletion.class, desc("createdAt"),
+                    "CourseDeletionService.getRecentDeletions"),
+            // TTL: finished jobs are kept for a week
+            new Entry(CourseDeletion.class, asc("completedAt").expire(Duration.ofDays(7)),
+                    "TTL")
+    );
+
+    /**
+     * An index that an entry above has replaced; dropped once the replacement exists.
+     */
+    public record Retired(Class<?> entity, String name) {
+    }
+
+    public static final List<Retired> RETIRED = List.of(
+            // served by { courseId, createdAt, _id }
+            new Retired(Discussion.class, "courseId_1"),
+            // extended with _id
+            new Retired(Post.class, "discussionId_1_createdAt_1"),
+            // reordered to { status, createdAt, leaseUntil }
+            new Retired(CourseDeletion.class, "status_1_leaseUntil_1")
+    );
+
+    private IndexCatalog() {
+    }
+
+    // Built in the background so a large collection does not block its other operations
+    // (MongoDB 4.2+ always uses an optimized build that only locks at the start and end)
+    private static Index asc(String field) {
+        return new Index(field, Sort.Direction.ASC).background();
+    }
+
+    private static Index desc(String field) {
+        return new Index(field, Sort.Direction.DESC).background();
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.todo.config;
+
+import com.example.todo.model.CourseEnrollment;
+import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import com.example.todo.model.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Creates the indexes of IndexCatalog, after the data fixes they depend on. ensureIndex is a
+ * no-op when the index already exists.
+ *
+ * Unique indexes enforce constraints the code relies on (signup inserts without checking the
+ * email first, enrollments rely on DuplicateKeyException), so they are built before the web
+ * server accepts requests and startup fails if one cannot be built. The other indexes only
+ * speed up queries: they are built once the application has started, each step attempted
+ * separately, and failures are logged instead of stopping the application.
+ */
+@Component
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Runs after every singleton is created and before the web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        createUniqueIndexes();
+    }
+
+    /**
+     * @throws IllegalStateException if a unique index cannot be built, e.g. two accounts that
+     *                               only differ in email case: merge them, then restart
+     */
+    public void createUniqueIndexes() {
+        // Emails are stored trimmed and lower-case; fix older documents before the unique index
+        run("normalize users.email", this::normalizeUserEmails);
+        // Enrollments duplicated by concurrent requests, before the unique { courseId, userId } index
+        run("deduplicate course_enrollments", this::deduplicateEnrollments);
+
+        for (IndexCatalog.Entry entry : IndexCatalog.INDEXES) {
+            if (isUnique(entry)) {
+                String step = mongoTemplate.getCollectionName(entry.entity()) + " " + indexName(entry.index());
+                try {
+                    ensureIndex(entry);
+                } catch (RuntimeException e) {
+                    throw new IllegalStateException("Unique index " + step + " could not be created: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void createIndexes() {
+        // Discussions created before postCount / lastPostAt existed
+        run("backfill discussions activity", this::backfillDiscussionActivity);
+
+        for (IndexCatalog.Entry entry : IndexCatalog.INDEXES) {
+            if (!isUnique(entry)) {
+                run(mongoTemplate.getCollectionName(entry.entity()) + " " + indexName(entry.index()),
+                        () -> ensureIndex(entry));
+            }
+        }
+        for (IndexCatalog.Retired retired : IndexCatalog.RETIRED) {
+            run("drop " + mongoTemplate.getCollectionName(retired.entity()) + " " + retired.name(),
+                    () -> dropRetired(retired));
+        }
+    }
+
+    private void dropRetired(IndexCatalog.Retired retired) {
+        IndexOperations indexes = mongoTemplate.indexOps(retired.entity());
+        if (indexes.getIndexInfo().stream().anyMatch(info -> info.getName().equals(retired.name()))) {
+            indexes.dropIndex(retired.name());
+            log.info("Dropped index {} of {}", retired.name(), mongoTemplate.getCollectionName(retired.entity()));
+        }
+    }
+
+    /**
+     * Creates the index. An existing index on the same keys that differs in uniqueness (e.g. a
+     * formerly non-unique index that is now unique) is replaced; if the replacement cannot be
+     * built, the previous index is restored.
+     */
+    private void ensureIndex(IndexCatalog.Entry entry) {
+        IndexOperations indexes = mongoTemplate.indexOps(entry.entity());
+        String name = indexName(entry.index());
+        boolean unique = isUnique(entry);
+        Optional<IndexInfo> conflicting = indexes.getIndexInfo().stream()
+                .filter(info -> info.getName().equals(name) && info.isUnique() != unique)
+                .findFirst();
+        if (conflicting.isEmpty()) {
+            indexes.ensureIndex(entry.index());
+            return;
+        }
+
+        indexes.dropIndex(name);
+        try {
+            indexes.ensureIndex(entry.index());
+            log.info("Replaced index {} ({})", name, unique ? "now unique" : "no longer unique");
+        } catch (RuntimeException e) {
+            Index previous = new Index().background();
+            entry.index().getIndexKeys().forEach((key, direction) ->
+                    previous.on(key, ((Number) direction).intValue() < 0 ? Sort.Direction.DESC : Sort.Direction.ASC));
+            indexes.ensureIndex(unique ? previous : previous.unique());
+            throw e;
+        }
+    }
+
+    private static boolean isUnique(IndexCatalog.Entry entry) {
+        return Boolean.TRUE.equals(entry.index().getIndexOptions().get("unique"));
+    }
+
+    // Default MongoDB index name, e.g. courseId_1_userId_1
+    private static String indexName(Index index) {
+        Object name = index.getIndexOptions().get("name");
+        if (name != null) {
+            return name.toString();
+        }
+        return index.getIndexKeys().entrySet().stream()
+                .map(key -> key.getKey() + "_" + key.getValue())
+                .collect(Collectors.joining("_"));
+    }
+
+    private void deduplicateEnrollments() {
+        boolean alreadyUnique = mongoTemplate.indexOps(CourseEnrollment.class).getIndexInfo().stream()
+                .anyMatch(info -> info.getName().equals("courseId_1_userId_1") && info.isUnique());
+        if (alreadyUnique) {
+            return;
+        }
+
+        // Keeps the oldest enrollment (lowest _id) of each { courseId, userId }
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                Aggregation.group("courseId", "userId").first("_id").as("keep").push("_id").as("ids"),
+                Aggregation.match(where("ids.1").exists(true)))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        long removed = 0;
+        try (Stream<Document> groups = mongoTemplate.aggregateStream(duplicates,
+                mongoTemplate.getCollectionName(CourseEnrollment.class), Document.class)) {
+            for (Document group : (Iterable<Document>) groups::iterator) {
+                List<Object> extra = new ArrayList<>(group.getList("ids", Object.class));
+                extra.remove(group.get("keep"));
+                removed += mongoTemplate.remove(new Query(where("_id").in(extra)), CourseEnrollment.class)
+                        .getDeletedCount();
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} duplicate course enrollments", removed);
+        }
+    }
+
+    private void normalizeUserEmails() {
+        long updated = mongoTemplate.updateMulti(
+                new BasicQuery("{ '$expr': { '$ne': [ '$email', { '$toLower': { '$trim': { 'input': '$email' } } } ] } }"),
+                AggregationUpdate.update().set("email").toValue(
+                        StringOperators.valueOf(StringOperators.Trim.valueOf("email")).toLower()),
+                User.class).getModifiedCount();
+        if (updated > 0) {
+            log.info("Normalized {} user emails to lower case", updated);
+        }
+    }
+
+    private void backfillDiscussionActivity() {
+        long updated = 0;
+        while (true) {
+            Query missing = new Query(where("lastPostAt").exists(false)).limit(500);
+            missing.fields().include("_id").include("createdAt");
+            List<Discussion> discussions = mongoTemplate.find(missing, Discussion.class);
+            if (discussions.isEmpty()) {
+                break;
+            }
+
+            // { _id: discussionId, postCount, lastPostAt, lastPostAuthor } for the batch
+            Aggregation activity = Aggregation.newAggregation(
+                    Aggregation.match(where("discussionId").in(discussions.stream().map(Discussion::getId).toList())),
+                    Aggregation.sort(Sort.Direction.DESC, "createdAt"),
+                    Aggregation.group("discussionId").count().as("postCount")
+                            .first("createdAt").as("lastPostAt")
+                            .first("userId").as("lastPostAuthor"));
+            Map<String, Document> byDiscussion = new HashMap<>();
+            for (Document document : mongoTemplate.aggregate(activity, Post.class, Document.class)) {
+                byDiscussion.put(String.valueOf(document.get("_id")), document);
+            }
+
+            BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Discussion.class);
+            for (Discussion discussion : discussions) {
+                Document posts = byDiscussion.get(discussion.getId());
+                Update update = posts == null
+                        ? new Update().set("postCount", 0L).set("lastPostAt", discussion.getCreatedAt())
+                        : new Update().set("postCount", ((Number) posts.get("postCount")).longValue())
+                                .set("lastPostAt", posts.get("lastPostAt"))
+                                .set("lastPostAuthor", posts.get("lastPostAuthor"));
+                updates.updateOne(new Query(where("_id").is(discussion.getId())), update);
+            }
+            updates.execute();
+            updated += discussions.size();
+        }
+        if (updated > 0) {
+            log.info("Backfilled post activity of {} discussions", updated);
+        }
+    }
+
+    private void run(String step, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.warn("MongoDB index step '{}' failed: {}", step, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.todo.config;
+
+import com.example.todo.model.CourseDeletion;
+import com.example.todo.model.CourseEnrollment;
+import com.example.todo.model.CourseStats;
+import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import com.example.todo.model.RefreshToken;
+import com.mongodb.ExplainVerbosity;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Explains the application's queries once the indexes exist and reports every query whose
+ * winning plan scans a whole collection (COLLSCAN) or sorts in memory (SORT).
+ *
+ * Enabled with mongo.query-plan-check.enabled=true (e.g. in CI against a throwaway
+ * database); with mongo.query-plan-check.fail-on-violation=true a violation stops the
+ * application instead of only being logged.
+ *
+ * Repository queries are read from the repositories themselves: every declared query method
+ * is explained, with its @Query filter or the filter and sort Spring Data derives from its
+ * name, so a new or changed method is checked without touching this class. Queries built in
+ * services with MongoTemplate are listed in serviceChecks().
+ */
+@Component
+@ConditionalOnProperty(name = "mongo.query-plan-check.enabled", havingValue = "true")
+public class QueryPlanVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    private static final List<String> FORBIDDEN_STAGES = List.of("COLLSCAN", "SORT");
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\?(\\d+)");
+
+    private record Check(String name, Class<?> entity, Document filter, Document sort) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+    private final ApplicationContext applicationContext;
+    private final boolean failOnViolation;
+
+    @Autowired
+    public QueryPlanVerifier(
+            MongoTemplate mongoTemplate,
+            ApplicationContext applicationContext,
+            @Value("${mongo.query-plan-check.fail-on-violation:false}") boolean failOnViolation) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.applicationContext = applicationContext;
+        this.failOnViolation = failOnViolation;
+    }
+
+    // After MongoIndexInitializer, which listens with the highest precedence
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void verifyOnStartup() {
+        List<Check> checks = checks();
+        List<String> violations = verify(checks);
+        if (violations.isEmpty()) {
+            log.info("All {} checked queries use an index", checks.size());
+            return;
+        }
+        violations.forEach(violation -> log.warn("Query plan check failed: {}", violation));
+        if (failOnViolation) {
+            throw new IllegalStateException(violations.size() + " queries are not served by an index: " + violations);
+        }
+    }
+
+    /**
+     * @return one message per query whose winning plan contains COLLSCAN or SORT
+     */
+    public List<String> verify() {
+        return verify(checks());
+    }
+
+    private List<String> verify(List<Check> checks) {
+        List<String> violations = new ArrayList<>();
+        for (Check check : checks) {
+            Document plan = mongoTemplate.getCollection(mongoTemplate.getCollectionName(check.entity()))
+                    .find(check.filter())
+                    .sort(check.sort())
+                    .explain(ExplainVerbosity.QUERY_PLANNER);
+            Object winningPlan = plan.get("queryPlanner", Document.class).get("winningPlan");
+            List<String> stages = new ArrayList<>();
+            collectStages(winningPlan, stages);
+            List<String> forbidden = stages.stream().filter(FORBIDDEN_STAGES::contains).distinct().toList();
+            if (!forbidden.isEmpty()) {
+                violations.add(check.name() + " " + forbidden + " (plan: " + stages + ")");
+            }
+        }
+        return violations;
+    }
+
+    // Every "stage" of the plan tree (inputStage, inputStages, queryPlan, ...)
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            map.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    /**
+     * Every query method declared by a repository, then the queries that services build
+     * themselves (with placeholder values).
+     */
+    private List<Check> checks() {
+        List<Check> checks = new ArrayList<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                checks.add(repositoryCheck(information.getRepositoryInterface().getSimpleName() + "." + method.getName(),
+                        domainType, method));
+            }
+        }
+        checks.addAll(serviceChecks());
+        return checks;
+    }
+
+    // A string query with sample arguments bound, or the filter and sort a derived query creates
+    private Check repositoryCheck(String name, Class<?> entity, Method method) {
+        org.springframework.data.mongodb.repository.Query annotation =
+                method.getAnnotation(org.springframework.data.mongodb.repository.Query.class);
+        Document filter;
+        Document sort;
+        if (annotation != null && !annotation.value().isEmpty()) {
+            filter = Document.parse(bind(annotation.value(), method));
+            sort = annotation.sort().isEmpty() ? new Document() : Document.parse(annotation.sort());
+        } else {
+            PartTree tree = new PartTree(method.getName(), entity);
+            filter = derivedFilter(tree);
+            sort = new Document();
+            tree.getSort().forEach(order -> sort.append(order.getProperty(), order.isAscending() ? 1 : -1));
+        }
+        // Callers page keyset-style in id order (e.g. CourseService)
+        boolean pagedOrSorted = Arrays.stream(method.getParameterTypes())
+                .anyMatch(type -> Pageable.class.isAssignableFrom(type) || Sort.class.isAssignableFrom(type));
+        if (pagedOrSorted && sort.isEmpty()) {
+            sort.append("id", 1);
+        }
+        return mapped(name, entity, filter, sort);
+    }
+
+    // Replaces each ?n of a string query with a sample of the n-th parameter's type
+    private static String bind(String json, Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Matcher placeholder = PLACEHOLDER.matcher(json);
+        StringBuilder bound = new StringBuilder();
+        while (placeholder.find()) {
+            Class<?> type = types[Integer.parseInt(placeholder.group(1))];
+            Document sample = new Document("v", sample(type));
+            String value = sample.toJson();
+            placeholder.appendReplacement(bound, Matcher.quoteReplacement(
+                    value.substring(value.indexOf(':') + 1, value.lastIndexOf('}')).trim()));
+        }
+        placeholder.appendTail(bound);
+        return bound.toString();
+    }
+
+    private static Document derivedFilter(PartTree tree) {
+        List<Document> branches = new ArrayList<>();
+        for (PartTree.OrPart orPart : tree) {
+            Document branch = new Document();
+            for (Part part : orPart) {
+                String field = part.getProperty().toDotPath();
+                Object value = sample(part.getProperty().getLeafProperty().getType());
+                branch.append(field, switch (part.getType()) {
+                    case SIMPLE_PROPERTY -> value;
+                    case NEGATING_SIMPLE_PROPERTY -> new Document("$ne", value);
+                    case GREATER_THAN, AFTER -> new Document("$gt", value);
+                    case GREATER_THAN_EQUAL -> new Document("$gte", value);
+                    case LESS_THAN, BEFORE -> new Document("$lt", value);
+                    case LESS_THAN_EQUAL -> new Document("$lte", value);
+                    case IN -> new Document("$in", List.of(value, value));
+                    case TRUE -> true;
+                    case FALSE -> false;
+                    case IS_NULL -> null;
+                    case EXISTS -> new Document("$exists", true);
+                    default -> throw new IllegalStateException("QueryPlanVerifier does not support "
+                            + part.getType() + " (" + tree + ")");
+                });
+            }
+            branches.add(branch);
+        }
+        if (branches.isEmpty()) {
+            return new Document();
+        }
+        return branches.size() == 1 ? branches.get(0) : new Document("$or", branches);
+    }
+
+    // Strings are valid ObjectIds, so _id and reference fields are queried like the real ones
+    private static Object sample(Class<?> type) {
+        if (type == String.class) {
+            return new ObjectId().toHexString();
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(new ObjectId().toHexString(), new ObjectId().toHexString());
+        }
+        if (Date.class.isAssignableFrom(type) || type == LocalDateTime.class || type == Instant.class) {
+            return new Date();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+        if (type.isPrimitive() || Number.class.isAssignableFrom(type)) {
+            return 0L;
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0].toString();
+        }
+        throw new IllegalStateException("QueryPlanVerifier has no sample value for " + type.getName());
+    }
+
+    private List<Check> serviceChecks() {
+        String id = new ObjectId().toHexString();
+        String otherId = new ObjectId().toHexString();
+        Date now = new Date();
+        return List.of(
+                // refresh_tokens
+                check("RefreshTokenService.consume", RefreshToken.class,
+                        new Query(where("tokenHash").is(id).and("revoked").is(false).and("expiresAt").gt(now))),
+
+                // course_enrollments
+                check("CourseExportService enrollments of a course", CourseEnrollment.class,
+                        new Query(where("courseId").is(id)).with(Sort.by(Sort.Direction.ASC, "userId"))),
+                check("EnrollmentService.getEnrolledCourseIds", CourseEnrollment.class,
+                        new Query(where("userId").is(id))),
+                check("EnrollmentService.getEnrolledCoursesPage", CourseEnrollment.class,
+                        new Query(where("userId").is(id).and("courseId").gt(otherId))
+                                .with(Sort.by(Sort.Direction.ASC, "courseId"))),
+
+                // discussions
+                check("DiscussionService.getDiscussionsPage (enrolled courses)", Discussion.class,
+                        new Query(where("courseId").in(id, otherId))
+                                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))),
+                check("DiscussionService.getDiscussionsPage (admin, next page)", Discussion.class,
+                        new Query(where("createdAt").lte(now).orOperator(
+                                where("createdAt").lt(now),
+                                where("createdAt").is(now).and("_id").lt(otherId)))
+                                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))),
+                check("DiscussionService.getActiveDiscussionsPage", Discussion.class,
+                        new Query(where("courseId").is(id))
+                                .with(Sort.by(Sort.Direction.DESC, "lastPostAt", "_id"))),
+                check("CourseExportService discussions of a course", Discussion.class,
+                        new Query(where("courseId").is(id)).with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))),
+
+                // posts
+                check("DiscussionService.getDiscussionThread / PostService.getPostsPage (after)", Post.class,
+                        new Query(where("discussionId").is(id).and("createdAt").gte(now).orOperator(
+                                where("createdAt").gt(now),
+                                where("createdAt").is(now).and("_id").gt(otherId)))
+                                .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))),
+                check("PostService.getPostsPage (before)", Post.class,
+                        new Query(where("discussionId").is(id).and("createdAt").lte(now).orOperator(
+                                where("createdAt").lt(now),
+                                where("createdAt").is(now).and("_id").lt(otherId)))
+                                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))),
+                check("PostService latest post of a discussion", Post.class,
+                        new Query(where("discussionId").is(id)).with(Sort.by(Sort.Direction.DESC, "createdAt"))),
+                check("CourseDeletionService posts of a course", Post.class,
+                        new Query(where("courseId").is(id))),
+
+                // course_stats / course_deletions
+                check("CourseStatsService.getAllStats by activity", CourseStats.class,
+                        new Query().with(Sort.by(Sort.Direction.DESC, "lastActivityAt"))),
+                check("CourseDeletionService claim", CourseDeletion.class,
+                        new Query(where("status").in(CourseDeletion.PENDING, CourseDeletion.RUNNING)
+                                .and("leaseUntil").lte(now))
+                                .with(Sort.by(Sort.Direction.ASC, "createdAt"))),
+                check("CourseDeletionService.getRecentDeletions", CourseDeletion.class,
+                        new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")))
+        );
+    }
+
+    private Check check(String name, Class<?> entity, Query query) {
+        return mapped(name, entity, query.getQueryObject(), query.getSortObject());
+    }
+
+    // Property names and id values as the driver receives them (id -> _id, hex string -> ObjectId)
+    private Check mapped(String name, Class<?> entity, Document filter, Document sort) {
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entity);
+        return new Check(name, entity, queryMapper.getMappedObject(filter, persistentEntity),
+                queryMapper.getMappedSort(sort, persistentEntity));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.todo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. evicting idle login-throttle keys).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
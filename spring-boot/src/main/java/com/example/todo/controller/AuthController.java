@@ -1,8 +1,10 @@
 package com.example.todo.controller;
 
 import com.example.todo.dto.AuthResponse;
+import com.example.todo.dto.RefreshTokenRequest;
 import com.example.todo.dto.SigninRequest;
 import com.example.todo.dto.SignupRequest;
+import com.example.todo.exception.TooManyRequestsException;
 import com.example.todo.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +12,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
@@ -73,51 +81,104 @@ public class AuthController {
     @Operation(summary = "User signup", description = "Register a new user account")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "User created successfully", content = @Content(schema = @Schema(implementation = AuthResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input data or user already exists")
+            @ApiResponse(responseCode = "400", description = "Invalid input data or user already exists"),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent requests, retry after the Retry-After delay")
     })
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@Valid @RequestBody SignupRequest request) {
-        try {
-            AuthResponse response = authService.signup(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (RuntimeException e) {
-            // Return error message in response body
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(java.util.Map.of("message", e.getMessage(), "error", "Bad Request"));
-        }
+    public CompletableFuture<ResponseEntity<?>> signup(@Valid @RequestBody SignupRequest request) {
+        return async(() -> authService.signup(request))
+                .<ResponseEntity<?>>thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .exceptionally(this::badRequest);
     }
 
     @Operation(summary = "User signin", description = "Authenticate user and get JWT token")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Authentication successful", content = @Content(schema = @Schema(implementation = AuthResponse.class))),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+            @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "429", description = "Too many signin attempts or concurrent requests, retry after the Retry-After delay")
     })
     @PostMapping("/signin")
-    public ResponseEntity<AuthResponse> signin(@Valid @RequestBody SigninRequest request) {
-        try {
-            AuthResponse response = authService.signin(request);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
+    public CompletableFuture<ResponseEntity<AuthResponse>> signin(@Valid @RequestBody SigninRequest request,
+                                                                  HttpServletRequest httpRequest) {
+        return async(() -> authService.signin(request, httpRequest.getRemoteAddr()))
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(ex -> {
+                    Throwable cause = unwrap(ex);
+                    if (cause instanceof TooManyRequestsException tooMany) {
+                        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooMany.getRetryAfterSeconds()))
+                                .build();
+                    }
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                });
     }
 
     @Operation(summary = "Admin signup", description = "Register a new admin user account")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Admin user created successfully", content = @Content(schema = @Schema(implementation = AuthResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input data or user already exists")
+            @ApiResponse(responseCode = "400", description = "Invalid input data or user already exists"),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent requests, retry after the Retry-After delay")
     })
     @PostMapping("/signup-admin")
-    public ResponseEntity<?> signupAdmin(@Valid @RequestBody SignupRequest request) {
+    public CompletableFuture<ResponseEntity<?>> signupAdmin(@Valid @RequestBody SignupRequest request) {
+        return async(() -> authService.signupAdmin(request))
+                .<ResponseEntity<?>>thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .exceptionally(this::badRequest);
+    }
+
+    @Operation(summary = "Refresh access token", description = "Exchange a refresh token for a new access token and a new refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens refreshed", content = @Content(schema = @Schema(implementation = AuthResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Refresh token is invalid, expired or already used")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
         try {
-            AuthResponse response = authService.signupAdmin(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.ok(authService.refresh(request));
         } catch (RuntimeException e) {
-            // Return error message in response body
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(java.util.Map.of("message", e.getMessage(), "error", "Bad Request"));
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(java.util.Map.of("message", e.getMessage(), "error", "Unauthorized"));
         }
     }
+
+    @Operation(summary = "Logout", description = "Revoke the current access token and the given refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Logged out")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Turns exceptions thrown before the hashing step (e.g. "user already exists")
+    // into a failed future, so every error goes through the same handler
+    private CompletableFuture<AuthResponse> async(Supplier<CompletableFuture<AuthResponse>> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ResponseEntity<?> badRequest(Throwable ex) {
+        Throwable cause = unwrap(ex);
+        if (cause instanceof TooManyRequestsException tooMany) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooMany.getRetryAfterSeconds()))
+                    .body(java.util.Map.of("message", tooMany.getMessage(), "error", "Too Many Requests"));
+        }
+        // Return error message in response body
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(java.util.Map.of("message", String.valueOf(cause.getMessage()), "error", "Bad Request"));
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
 }
 
 
@@ -1,7 +1,21 @@
 package com.example.todo.controller;
 
+import com.example.todo.dto.CourseImportResult;
+import com.example.todo.dto.CourseSearchHit;
+import com.example.todo.dto.CursorPage;
+import com.example.todo.dto.PatchCourseRequest;
+import com.example.todo.exception.PreconditionFailedException;
 import com.example.todo.model.Course;
+import com.example.todo.model.CourseDeletion;
+import com.example.todo.model.CourseStats;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.service.CourseDeletionService;
+import com.example.todo.service.CourseExportService;
+import com.example.todo.service.CourseImportService;
 import com.example.todo.service.CourseService;
+import com.example.todo.service.CourseStatsService;
+import com.example.todo.service.EnrollmentService;
+import com.example.todo.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +24,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -32,6 +53,22 @@ public class CourseController {
     // NODE.JS EQUIVALENT: const courseService = require('../services/courseService');
     private final CourseService courseService;
 
+    // Background course deletions (progress endpoints below)
+    private final CourseDeletionService courseDeletionService;
+
+    // Activity counters for the admin dashboard
+    private final CourseStatsService courseStatsService;
+
+    // Normal users only see the courses they are enrolled in
+    private final EnrollmentService enrollmentService;
+
+    // Course archives (streaming export and import)
+    private final CourseExportService courseExportService;
+    private final CourseImportService courseImportService;
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String APPLICATION_GZIP = "application/gzip";
+
     // ============================================================================
     // DEPENDENCY INJECTION - WHERE courseService COMES FROM!
     // ============================================================================
@@ -60,12 +97,19 @@ public class CourseController {
     //     // Auto-injected like Spring!
     //   }
     @Autowired
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, CourseDeletionService courseDeletionService,
+                            CourseStatsService courseStatsService, EnrollmentService enrollmentService,
+                            CourseExportService courseExportService, CourseImportService courseImportService) {
         // THIS IS WHERE courseService COMES FROM!
         // Spring automatically provides the CourseService instance
         // The CourseService is defined in: service/CourseService.java
         // It's marked with @Service, so Spring manages it as a bean
         this.courseService = courseService;
+        this.courseDeletionService = courseDeletionService;
+        this.courseStatsService = courseStatsService;
+        this.enrollmentService = enrollmentService;
+        this.courseExportService = courseExportService;
+        this.courseImportService = courseImportService;
     }
 
     @Operation(
@@ -73,26 +117,126 @@ public class CourseController {
             description = "Retrieve a list of all courses. For normal users, returns only enrolled courses. Admins see all courses.",
             security = @SecurityRequirement(name = "bearerAuth")
     )
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of courses")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of courses"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched the ETag)")
+    })
     @GetMapping
     public ResponseEntity<List<Course>> getAllCourses(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-        // For now, return all courses
-        // Frontend will filter based on user role
-        List<Course> courses = courseService.getAllCourses();
-        return ResponseEntity.ok(courses);
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // ROLE-AWARE LISTING: admins get the (cached) catalog, everyone else only
+        // their enrolled courses, filtered here on the server - never in the frontend.
+        // NODE.JS EQUIVALENT (Mongoose):
+        //   CourseEnrollment.aggregate([
+        //     { $match: { userId } },
+        //     { $lookup: { from: 'courses', localField: 'courseId', foreignField: '_id', as: 'course' } },
+        //     ...])
+        List<Course> courses = currentUser.isAdmin()
+                ? courseService.getAllCourses()
+                : enrollmentService.getEnrolledCourses(currentUser.getUserId());
+
+        // CONDITIONAL GET: the ETag covers every course's id + updatedAt.
+        // If the client already has this version we answer 304 with no body,
+        // so nothing is serialized or sent.
+        // NODE.JS EQUIVALENT (Express):
+        //   res.set('ETag', etag);
+        //   if (req.fresh) return res.status(304).end();
+        String etag = CourseService.etag(courses);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        return ETags.ok(courses, etag);
     }
 
-    @Operation(summary = "Get course by ID", description = "Retrieve a specific course by its ID")
+    @Operation(
+            summary = "Get courses page",
+            description = "Keyset-paginated list of courses in stable _id order. Pass nextCursor from the " +
+                    "previous page as cursor; every page costs the same regardless of its position. " +
+                    "Normal users page through their enrolled courses, admins through all courses.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of courses"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Course>> getCoursesPage(
+            @Parameter(description = "Opaque cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped by courses.page.max-size)") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.ok(enrollmentService.getEnrolledCoursesPage(currentUser.getUserId(), cursor, limit));
+        }
+        return ResponseEntity.ok(courseService.getCoursesPage(cursor, limit));
+    }
+
+    @Operation(
+            summary = "Search courses",
+            description = "Search-as-you-type over course names and descriptions. Every word of q must match " +
+                    "the start of a word in the course; name matches rank above description matches. " +
+                    "Answered from an in-memory index. Non-admin users only find the courses they are enrolled in.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponse(responseCode = "200", description = "Matching courses, best first")
+    @GetMapping("/search")
+    public ResponseEntity<List<CourseSearchHit>> searchCourses(
+            @Parameter(description = "Text typed so far", example = "spring bo") @RequestParam(defaultValue = "") String q,
+            @Parameter(description = "Maximum number of results (capped by courses.search.max-results)") @RequestParam(defaultValue = "10") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        // NODE.JS EQUIVALENT: a regex query like
+        //   Course.find({ name: new RegExp(q, 'i') })
+        // scans the whole collection; this lookup touches only the matching words.
+        List<String> courseIds = currentUser.isAdmin() ? null : enrollmentService.getEnrolledCourseIds(currentUser.getUserId());
+        return ResponseEntity.ok(courseService.searchCourses(q, courseIds, limit));
+    }
+
+    @Operation(
+            summary = "Rebuild course search index",
+            description = "Reloads the in-memory search index from the database. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Index rebuilt"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex(
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long started = System.currentTimeMillis();
+        int courses = courseService.rebuildSearchIndex();
+        return ResponseEntity.ok(java.util.Map.of(
+                "courses", courses,
+                "millis", System.currentTimeMillis() - started));
+    }
+
+    @Operation(
+            summary = "Get course by ID",
+            description = "Retrieve a specific course by its ID. Non-admin users can only retrieve courses they are enrolled in.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Course found", content = @Content(schema = @Schema(implementation = Course.class))),
-            @ApiResponse(responseCode = "404", description = "Course not found")
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched the ETag)"),
+            @ApiResponse(responseCode = "404", description = "Course not found (or not enrolled, for non-admin users)")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Course> getCourseById(
-            @Parameter(description = "ID of the course to retrieve", required = true) @PathVariable String id) {
+            @Parameter(description = "ID of the course to retrieve", required = true) @PathVariable String id,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        // 404 rather than 403, so other users cannot probe which course ids exist
+        if (!currentUser.isAdmin() && !enrollmentService.isUserEnrolled(id, currentUser.getUserId())) {
+            return ResponseEntity.notFound().build();
+        }
         return courseService.getCourseById(id)
-                .map(course -> ResponseEntity.ok(course))
+                .map(course -> {
+                    String etag = CourseService.etag(course);
+                    return ETags.matches(ifNoneMatch, etag) ? ETags.<Course>notModified(etag) : ETags.ok(course, etag);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -111,45 +255,282 @@ public class CourseController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Course updated successfully", content = @Content(schema = @Schema(implementation = Course.class))),
             @ApiResponse(responseCode = "404", description = "Course not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version"),
             @ApiResponse(responseCode = "400", description = "Invalid input data")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Course> updateCourse(
+    public ResponseEntity<?> updateCourse(
+            @Parameter(description = "ID of the course to update", required = true) @PathVariable String id,
+            @Valid @RequestBody Course course,
+            @Parameter(description = "ETag (or version) the change is based on; 412 if the resource has changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Course updatedCourse = courseService.updateCourse(id, course, ETags.ifMatchVersion(ifMatch, id));
+            return ETags.ok(updatedCourse, CourseService.etag(updatedCourse));
+        } catch (PreconditionFailedException e) {
+            return preconditionFailed(e);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Partially update a course", description = "Change only the fields present in the body")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Course updated successfully", content = @Content(schema = @Schema(implementation = Course.class))),
+            @ApiResponse(responseCode = "404", description = "Course not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchCourse(
             @Parameter(description = "ID of the course to update", required = true) @PathVariable String id,
-            @Valid @RequestBody Course course) {
+            @Valid @RequestBody PatchCourseRequest patch,
+            @Parameter(description = "ETag (or version) the change is based on; 412 if the resource has changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // PATCH vs PUT:
+        //   PUT replaces all editable fields, PATCH sends only the ones that change.
+        //   Both run as ONE findAndModify ($set + $inc version) instead of find + save.
+        //   With If-Match the filter also contains the version, so a concurrent edit
+        //   makes the update match nothing and the client gets 412 instead of a lost update.
+        // NODE.JS EQUIVALENT (Mongoose):
+        //   Course.findOneAndUpdate({ _id: id, __v: version },
+        //       { $set: patch, $inc: { __v: 1 } }, { new: true });
         try {
-            Course updatedCourse = courseService.updateCourse(id, course);
-            return ResponseEntity.ok(updatedCourse);
+            Course updatedCourse = courseService.patchCourse(id, patch, ETags.ifMatchVersion(ifMatch, id));
+            return ETags.ok(updatedCourse, CourseService.etag(updatedCourse));
+        } catch (PreconditionFailedException e) {
+            return preconditionFailed(e);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Delete a course", description = "Delete a course by ID")
+    @Operation(
+            summary = "Delete a course",
+            description = "Delete a course by ID. The course disappears immediately; its discussions, posts and " +
+                    "enrollments are deleted in the background. Progress: GET /api/courses/deletions/{id}. " +
+                    "Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "204", description = "Course deleted successfully"),
+            @ApiResponse(responseCode = "202", description = "Course deletion accepted", content = @Content(schema = @Schema(implementation = CourseDeletion.class))),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
             @ApiResponse(responseCode = "404", description = "Course not found")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCourse(
-            @Parameter(description = "ID of the course to delete", required = true) @PathVariable String id) {
+    public ResponseEntity<CourseDeletion> deleteCourse(
+            @Parameter(description = "ID of the course to delete", required = true) @PathVariable String id,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         try {
-            courseService.deleteCourse(id);
-            return ResponseEntity.noContent().build();
+            // 202 ACCEPTED: the work continues after the response is sent.
+            // Location points at the job so the client can follow its progress.
+            // NODE.JS EQUIVALENT:
+            //   res.status(202).location(`/api/courses/deletions/${id}`).json(job);
+            CourseDeletion deletion = courseService.deleteCourse(id);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/courses/deletions/" + id))
+                    .body(deletion);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Delete all courses", description = "Delete all courses from the database")
-    @ApiResponse(responseCode = "204", description = "All courses deleted successfully")
+    @Operation(
+            summary = "Delete all courses",
+            description = "Delete all courses. Their discussions, posts and enrollments are deleted in the background. " +
+                    "Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Deletion of all courses accepted"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
     @DeleteMapping
-    public ResponseEntity<Void> deleteAllCourses() {
-        courseService.deleteAllCourses();
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<?> deleteAllCourses(
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long courses = courseService.deleteAllCourses();
+        return ResponseEntity.accepted()
+                .body(java.util.Map.of("message", "Deletion of " + courses + " courses scheduled", "courses", courses));
     }
-}
 
+    @Operation(
+            summary = "Export a course archive",
+            description = "Streams the course with all its discussions, posts and enrollments as NDJSON " +
+                    "(one {\"type\", \"data\"} record per line, ending with an \"end\" record), gzip-compressed " +
+                    "with gzip=true. Memory use does not depend on the size of the course. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archive streamed"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
+            @ApiResponse(responseCode = "404", description = "Course not found"),
+            @ApiResponse(responseCode = "429", description = "Too many exports in progress (courses.export.max-concurrent)")
+    })
+    @GetMapping(value = "/{id}/export", produces = {APPLICATION_NDJSON, APPLICATION_GZIP})
+    public ResponseEntity<StreamingResponseBody> exportCourse(
+            @Parameter(description = "ID of the course to export", required = true) @PathVariable String id,
+            @Parameter(description = "Compress the archive with gzip") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            // The body runs after this method returns, writing straight to the response
+            // NODE.JS EQUIVALENT:
+            //   cursor.stream().pipe(ndjsonTransform).pipe(zlib.createGzip()).pipe(res);
+            StreamingResponseBody body = courseExportService.export(id, gzip);
+            String filename = "course-" + id + (gzip ? ".ndjson.gz" : ".ndjson");
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(gzip ? APPLICATION_GZIP : APPLICATION_NDJSON))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .body(body);
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            throw e;
+        }
+    }
+
+    @Operation(
+            summary = "Import a course archive",
+            description = "Creates a new course from an archive written by GET /api/courses/{id}/export (NDJSON, " +
+                    "gzip is detected automatically). Every document gets a new ID. The archive is parsed while " +
+                    "it is uploaded and written with bulk inserts; an invalid or incomplete archive leaves nothing " +
+                    "behind. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Course imported", content = @Content(schema = @Schema(implementation = CourseImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid or incomplete archive"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
+            @ApiResponse(responseCode = "429", description = "Too many imports in progress (courses.import.max-concurrent)")
+    })
+    @PostMapping(value = "/import", consumes = {APPLICATION_NDJSON, APPLICATION_GZIP, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<CourseImportResult> importCourse(
+            HttpServletRequest request,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) throws IOException {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // The request body is read as it arrives, never buffered as a whole
+        CourseImportResult result = courseImportService.importCourse(request.getInputStream());
+        return ResponseEntity.created(URI.create("/api/courses/" + result.getCourseId())).body(result);
+    }
+
+    @Operation(
+            summary = "List course activity",
+            description = "Enrollment, discussion and post counts and last activity per course, read from " +
+                    "precomputed counters (one query, no counting). Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved course activity"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<List<CourseStats>> getCourseStats(
+            @Parameter(description = "Order: id (course id) or activity (most recently active first)") @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Maximum number of courses (at most 1000)") @RequestParam(defaultValue = "1000") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // NODE.JS EQUIVALENT: CourseStats.find().sort({ lastActivityAt: -1 }).limit(limit)
+        // instead of countDocuments() on three collections for every course
+        return ResponseEntity.ok(courseStatsService.getAllStats("activity".equals(sort), limit));
+    }
+
+    @Operation(
+            summary = "Get course activity",
+            description = "Activity counters of one course. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Course activity", content = @Content(schema = @Schema(implementation = CourseStats.class))),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
+            @ApiResponse(responseCode = "404", description = "Course not found")
+    })
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<CourseStats> getCourseStatsById(
+            @Parameter(description = "ID of the course", required = true) @PathVariable String id,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // No counters yet means no activity yet
+        return courseStatsService.getStats(id)
+                .or(() -> courseService.getCourseById(id).map(course -> new CourseStats(course.getId())))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 
+    @Operation(
+            summary = "Recount course activity",
+            description = "Recounts the activity counters of every course and repairs the ones that drifted. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counters recounted"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PostMapping("/stats/reconcile")
+    public ResponseEntity<?> reconcileCourseStats(
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long repaired = courseStatsService.reconcile();
+        return ResponseEntity.ok(java.util.Map.of("repaired", repaired));
+    }
+
+    @Operation(
+            summary = "List course deletions",
+            description = "Most recent background course deletions with their progress. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved course deletions"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @GetMapping("/deletions")
+    public ResponseEntity<List<CourseDeletion>> getCourseDeletions(
+            @Parameter(description = "Maximum number of jobs (newest first, at most 500)") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(courseDeletionService.getRecentDeletions(limit));
+    }
 
+    @Operation(
+            summary = "Get course deletion progress",
+            description = "Status and counters of the background deletion of one course. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deletion found", content = @Content(schema = @Schema(implementation = CourseDeletion.class))),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
+            @ApiResponse(responseCode = "404", description = "No deletion for this course")
+    })
+    @GetMapping("/deletions/{courseId}")
+    public ResponseEntity<CourseDeletion> getCourseDeletion(
+            @Parameter(description = "ID of the deleted course", required = true) @PathVariable String courseId,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return courseDeletionService.getDeletion(courseId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 
+    private static ResponseEntity<?> preconditionFailed(PreconditionFailedException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(java.util.Map.of("message", e.getMessage(), "error", "Precondition Failed"));
+    }
+}
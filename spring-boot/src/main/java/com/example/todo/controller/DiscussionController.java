@@ -1,10 +1,14 @@
 package com.example.todo.controller;
 
+import com.example.todo.dto.CursorPage;
+import com.example.todo.dto.DiscussionThread;
+import com.example.todo.dto.PatchDiscussionRequest;
+import com.example.todo.exception.PreconditionFailedException;
 import com.example.todo.model.Discussion;
 import com.example.todo.service.DiscussionService;
 import com.example.todo.service.EnrollmentService;
-import com.example.todo.util.JwtUtil;
-import com.example.todo.security.CurrentUser;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,12 +19,13 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/discussions")
@@ -30,85 +35,137 @@ public class DiscussionController {
 
     private final DiscussionService discussionService;
     private final EnrollmentService enrollmentService;
-    private final JwtUtil jwtUtil;
 
     @Autowired
-    public DiscussionController(DiscussionService discussionService, EnrollmentService enrollmentService, JwtUtil jwtUtil) {
+    public DiscussionController(DiscussionService discussionService, EnrollmentService enrollmentService) {
         this.discussionService = discussionService;
         this.enrollmentService = enrollmentService;
-        this.jwtUtil = jwtUtil;
     }
 
     @Operation(
             summary = "Get all discussions",
-            description = "Retrieve a list of all discussions. For normal users, returns only discussions from enrolled courses. Admins see all discussions.",
+            description = "Retrieve the most recent discussions (capped by discussions.list.max-size). For normal users, returns only discussions from enrolled courses. Admins see all discussions.",
             security = @SecurityRequirement(name = "bearerAuth")
     )
     @ApiResponse(responseCode = "200", description = "Successfully retrieved list of discussions")
     @GetMapping
     public ResponseEntity<List<Discussion>> getAllDiscussions(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-        try {
-            String userId = CurrentUser.getUserId();
-            String role = null;
-            
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                role = jwtUtil.getRoleFromToken(token);
-                if (userId == null) {
-                    userId = jwtUtil.getUserIdFromToken(token);
-                }
-            }
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.ok(List.of());
+        }
+        return ResponseEntity.ok(discussionService.getRecentDiscussions(visibleCourseIds(currentUser)));
+    }
 
-            List<Discussion> discussions;
-            
-            // If user is admin, return all discussions
-            if ("ADMIN".equals(role)) {
-                discussions = discussionService.getAllDiscussions();
-            } else if (userId != null) {
-                // For normal users, return only discussions from enrolled courses
-                List<String> enrolledCourseIds = enrollmentService.getEnrolledCourses(userId)
-                        .stream()
-                        .map(course -> course.getId())
-                        .collect(Collectors.toList());
-                
-                if (enrolledCourseIds.isEmpty()) {
-                    discussions = List.of();
-                } else {
-                    discussions = discussionService.getDiscussionsByCourseIds(enrolledCourseIds);
-                }
-            } else {
-                // No auth, return empty list
-                discussions = List.of();
-            }
-            
-            return ResponseEntity.ok(discussions);
-        } catch (Exception e) {
-            // If error, return all (for backward compatibility)
-            return ResponseEntity.ok(discussionService.getAllDiscussions());
+    @Operation(
+            summary = "Get discussions page",
+            description = "Keyset-paginated discussions, most recent first. Pass nextCursor from the previous page as cursor. " +
+                    "For normal users, returns only discussions from enrolled courses. Admins see all discussions.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of discussions"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Discussion>> getDiscussionsPage(
+            @Parameter(description = "Opaque cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped by discussions.page.max-size)") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.ok(new CursorPage<>(List.of(), null, false));
         }
+        return ResponseEntity.ok(discussionService.getDiscussionsPage(visibleCourseIds(currentUser), cursor, limit));
     }
 
     @Operation(summary = "Get discussion by ID", description = "Retrieve a specific discussion by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Discussion found", content = @Content(schema = @Schema(implementation = Discussion.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched the ETag)"),
             @ApiResponse(responseCode = "404", description = "Discussion not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Discussion> getDiscussionById(
-            @Parameter(description = "ID of the discussion to retrieve", required = true) @PathVariable String id) {
+            @Parameter(description = "ID of the discussion to retrieve", required = true) @PathVariable String id,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Version projection first: a 304 never loads the full document
+        String etag = discussionService.getDiscussionETag(id).orElse(null);
+        if (etag == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
         return discussionService.getDiscussionById(id)
-                .map(discussion -> ResponseEntity.ok(discussion))
+                .map(discussion -> ETags.ok(discussion, DiscussionService.etag(discussion)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+            summary = "Get discussion thread",
+            description = "The discussion with its first page of posts (oldest first) and the names of their authors, " +
+                    "in one request. Pass nextCursor as cursor to get the following posts.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Discussion found", content = @Content(schema = @Schema(implementation = DiscussionThread.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "404", description = "Discussion not found (or not enrolled in its course, for non-admin users)")
+    })
+    @GetMapping("/{id}/thread")
+    public ResponseEntity<DiscussionThread> getDiscussionThread(
+            @Parameter(description = "ID of the discussion", required = true) @PathVariable String id,
+            @Parameter(description = "Opaque cursor from the previous page of posts (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of posts (capped by posts.page.max-size)") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.isAdmin() && !discussionService.getDiscussionCourseId(id)
+                .map(courseId -> canRead(courseId, currentUser))
+                .orElse(false)) {
+            return ResponseEntity.notFound().build();
+        }
+        return discussionService.getDiscussionThread(id, cursor, limit)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Get discussions by course ID", description = "Retrieve all discussions for a specific course")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved discussions")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved discussions"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched the ETag)")
+    })
     @GetMapping("/course/{courseId}")
     public ResponseEntity<List<Discussion>> getDiscussionsByCourseId(
-            @Parameter(description = "ID of the course", required = true) @PathVariable String courseId) {
+            @Parameter(description = "ID of the course", required = true) @PathVariable String courseId,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = discussionService.getCourseDiscussionsETag(courseId);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
         List<Discussion> discussions = discussionService.getDiscussionsByCourseId(courseId);
-        return ResponseEntity.ok(discussions);
+        return ETags.ok(discussions, DiscussionService.etag(discussions));
+    }
+
+    @Operation(
+            summary = "Get active discussions of a course",
+            description = "Keyset-paginated discussions of a course, most recently active (latest post) first. " +
+                    "Pass nextCursor from the previous page as cursor.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of discussions"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "404", description = "Not enrolled in the course (non-admin users)")
+    })
+    @GetMapping("/course/{courseId}/active")
+    public ResponseEntity<CursorPage<Discussion>> getActiveDiscussions(
+            @Parameter(description = "ID of the course", required = true) @PathVariable String courseId,
+            @Parameter(description = "Opaque cursor from the previous page (omit for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (capped by discussions.page.max-size)") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!canRead(courseId, currentUser)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(discussionService.getActiveDiscussionsPage(courseId, cursor, limit));
     }
 
     @Operation(
@@ -124,14 +181,12 @@ public class DiscussionController {
     @PostMapping
     public ResponseEntity<?> createDiscussion(
             @Valid @RequestBody Discussion discussion,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
+            String userId = currentUser.getUserId();
 
             // Check if user is enrolled (unless admin)
-            if (!"ADMIN".equals(role)) {
+            if (!currentUser.isAdmin()) {
                 if (!enrollmentService.isUserEnrolled(discussion.getCourseId(), userId)) {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN)
                             .body(java.util.Map.of("message", "You must be enrolled in the course to create discussions"));
@@ -155,19 +210,56 @@ public class DiscussionController {
             @ApiResponse(responseCode = "200", description = "Discussion updated successfully", content = @Content(schema = @Schema(implementation = Discussion.class))),
             @ApiResponse(responseCode = "404", description = "Discussion not found"),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
-            @ApiResponse(responseCode = "403", description = "You can only update your own discussions")
+            @ApiResponse(responseCode = "403", description = "You can only update your own discussions"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{id}")
     public ResponseEntity<?> updateDiscussion(
             @Parameter(description = "ID of the discussion to update", required = true) @PathVariable String id,
             @Valid @RequestBody Discussion discussion,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(description = "ETag (or version) the change is based on; 412 if the resource has changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            
-            Discussion updatedDiscussion = discussionService.updateDiscussion(id, discussion, userId);
-            return ResponseEntity.ok(updatedDiscussion);
+            Discussion updatedDiscussion = discussionService.updateDiscussion(
+                    id, discussion, currentUser.getUserId(), ETags.ifMatchVersion(ifMatch, id));
+            return ETags.ok(updatedDiscussion, DiscussionService.etag(updatedDiscussion));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(java.util.Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(java.util.Map.of("message", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Partially update a discussion",
+            description = "Change only the title and/or description present in the body. Only the creator can update.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Discussion updated successfully", content = @Content(schema = @Schema(implementation = Discussion.class))),
+            @ApiResponse(responseCode = "404", description = "Discussion not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "403", description = "You can only update your own discussions"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchDiscussion(
+            @Parameter(description = "ID of the discussion to update", required = true) @PathVariable String id,
+            @Valid @RequestBody PatchDiscussionRequest patch,
+            @Parameter(description = "ETag (or version) the change is based on; 412 if the resource has changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        try {
+            Discussion updatedDiscussion = discussionService.patchDiscussion(
+                    id, patch, currentUser.getUserId(), ETags.ifMatchVersion(ifMatch, id));
+            return ETags.ok(updatedDiscussion, DiscussionService.etag(updatedDiscussion));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(java.util.Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
                 return ResponseEntity.notFound().build();
@@ -190,12 +282,9 @@ public class DiscussionController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteDiscussion(
             @Parameter(description = "ID of the discussion to delete", required = true) @PathVariable String id,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            
-            discussionService.deleteDiscussion(id, userId);
+            discussionService.deleteDiscussion(id, currentUser.getUserId());
             return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
@@ -206,14 +295,17 @@ public class DiscussionController {
         }
     }
 
-    private String extractToken(String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        throw new RuntimeException("Invalid authorization header");
+    // Admins read every course, other users their enrolled courses; 404 otherwise, so course
+    // and discussion ids cannot be probed (as in CourseController.getCourseById)
+    private boolean canRead(String courseId, AuthenticatedUser currentUser) {
+        return currentUser.isAdmin() || enrollmentService.isUserEnrolled(courseId, currentUser.getUserId());
     }
-}
 
+    // null (all courses) for admins, otherwise the ids of the user's enrolled courses
+    private List<String> visibleCourseIds(AuthenticatedUser currentUser) {
+        return currentUser.isAdmin() ? null : enrollmentService.getEnrolledCourseIds(currentUser.getUserId());
+    }
+}
 
 
 
@@ -4,8 +4,8 @@ import com.example.todo.dto.EnrolledUserDto;
 import com.example.todo.dto.EnrollUsersRequest;
 import com.example.todo.model.Course;
 import com.example.todo.model.CourseEnrollment;
+import com.example.todo.security.AuthenticatedUser;
 import com.example.todo.service.EnrollmentService;
-import com.example.todo.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,6 +18,7 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -29,12 +30,10 @@ import java.util.List;
 public class EnrollmentController {
 
     private final EnrollmentService enrollmentService;
-    private final JwtUtil jwtUtil;
 
     @Autowired
-    public EnrollmentController(EnrollmentService enrollmentService, JwtUtil jwtUtil) {
+    public EnrollmentController(EnrollmentService enrollmentService) {
         this.enrollmentService = enrollmentService;
-        this.jwtUtil = jwtUtil;
     }
 
     @Operation(
@@ -50,21 +49,17 @@ public class EnrollmentController {
     @PostMapping
     public ResponseEntity<List<CourseEnrollment>> enrollUsers(
             @Valid @RequestBody EnrollUsersRequest request,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String grantedBy = jwtUtil.getUserIdFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
-
             // Check if user is admin
-            if (!"ADMIN".equals(role)) {
+            if (!currentUser.isAdmin()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
             List<CourseEnrollment> enrollments = enrollmentService.enrollUsers(
                     request.getCourseId(),
                     request.getUserIds(),
-                    grantedBy
+                    currentUser.getUserId()
             );
 
             return ResponseEntity.status(HttpStatus.CREATED).body(enrollments);
@@ -86,13 +81,10 @@ public class EnrollmentController {
     @GetMapping("/course/{courseId}")
     public ResponseEntity<List<EnrolledUserDto>> getEnrolledUsers(
             @Parameter(description = "ID of the course", required = true) @PathVariable String courseId,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String role = jwtUtil.getRoleFromToken(token);
-
             // Check if user is admin
-            if (!"ADMIN".equals(role)) {
+            if (!currentUser.isAdmin()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
@@ -114,24 +106,14 @@ public class EnrollmentController {
     })
     @GetMapping("/my-courses")
     public ResponseEntity<List<Course>> getMyEnrolledCourses(
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            
-            List<Course> courses = enrollmentService.getEnrolledCourses(userId);
+            List<Course> courses = enrollmentService.getEnrolledCourses(currentUser.getUserId());
             return ResponseEntity.ok(courses);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
     }
-
-    private String extractToken(String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        throw new RuntimeException("Invalid authorization header");
-    }
 }
 
 
@@ -1,10 +1,13 @@
 package com.example.todo.controller;
 
 import com.example.todo.dto.CreatePostRequest;
+import com.example.todo.dto.PostPage;
 import com.example.todo.dto.UpdatePostRequest;
+import com.example.todo.exception.PreconditionFailedException;
 import com.example.todo.model.Post;
+import com.example.todo.security.AuthenticatedUser;
 import com.example.todo.service.PostService;
-import com.example.todo.util.JwtUtil;
+import com.example.todo.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,8 +18,10 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,25 +33,53 @@ import java.util.List;
 public class PostController {
 
     private final PostService postService;
-    private final JwtUtil jwtUtil;
 
     @Autowired
-    public PostController(PostService postService, JwtUtil jwtUtil) {
+    public PostController(PostService postService) {
         this.postService = postService;
-        this.jwtUtil = jwtUtil;
     }
 
     @Operation(
             summary = "Get all posts by discussion ID",
-            description = "Retrieve all posts for a specific discussion",
+            description = "Retrieve all posts for a specific discussion (for long discussions use /discussion/{discussionId}/page)",
             security = @SecurityRequirement(name = "bearerAuth")
     )
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of posts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of posts"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched the ETag)")
+    })
     @GetMapping("/discussion/{discussionId}")
     public ResponseEntity<List<Post>> getPostsByDiscussionId(
-            @Parameter(description = "ID of the discussion", required = true) @PathVariable String discussionId) {
+            @Parameter(description = "ID of the discussion", required = true) @PathVariable String discussionId,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Version projection first: a 304 never loads the full posts
+        String etag = postService.getDiscussionPostsETag(discussionId);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
         List<Post> posts = postService.getPostsByDiscussionId(discussionId);
-        return ResponseEntity.ok(posts);
+        return ETags.ok(posts, PostService.etag(posts));
+    }
+
+    @Operation(
+            summary = "Get a page of posts by discussion ID",
+            description = "Keyset-paginated posts of a discussion, oldest first. Without cursors returns the first posts, " +
+                    "or the latest ones with latest=true. Pass afterCursor as after to continue (or to fetch only posts " +
+                    "newer than those already loaded) and beforeCursor as before to load older posts.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of posts"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, or both after and before")
+    })
+    @GetMapping("/discussion/{discussionId}/page")
+    public ResponseEntity<PostPage> getPostsPage(
+            @Parameter(description = "ID of the discussion", required = true) @PathVariable String discussionId,
+            @Parameter(description = "Cursor; return the posts that follow it") @RequestParam(required = false) String after,
+            @Parameter(description = "Cursor; return the posts that precede it") @RequestParam(required = false) String before,
+            @Parameter(description = "Without a cursor, start from the latest posts instead of the first") @RequestParam(defaultValue = "false") boolean latest,
+            @Parameter(description = "Page size (capped by posts.page.max-size)") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(postService.getPostsPage(discussionId, after, before, latest, limit));
     }
 
     @Operation(
@@ -56,13 +89,22 @@ public class PostController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Post found", content = @Content(schema = @Schema(implementation = Post.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched the ETag)"),
             @ApiResponse(responseCode = "404", description = "Post not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Post> getPostById(
-            @Parameter(description = "ID of the post to retrieve", required = true) @PathVariable String id) {
+            @Parameter(description = "ID of the post to retrieve", required = true) @PathVariable String id,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = postService.getPostETag(id).orElse(null);
+        if (etag == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
         return postService.getPostById(id)
-                .map(post -> ResponseEntity.ok(post))
+                .map(post -> ETags.ok(post, PostService.etag(post)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -73,22 +115,18 @@ public class PostController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Post created successfully", content = @Content(schema = @Schema(implementation = Post.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input data")
+            @ApiResponse(responseCode = "400", description = "Invalid input data or discussion not found")
     })
     @PostMapping
     public ResponseEntity<?> createPost(
             @Valid @RequestBody CreatePostRequest request,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            
             Post post = new Post();
             post.setDiscussionId(request.getDiscussionId());
-            post.setCourseId(request.getCourseId());
             post.setContent(request.getContent());
             
-            Post createdPost = postService.createPost(post, userId);
+            Post createdPost = postService.createPost(post, currentUser.getUserId());
             return ResponseEntity.status(HttpStatus.CREATED).body(createdPost);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -105,22 +143,25 @@ public class PostController {
             @ApiResponse(responseCode = "200", description = "Post updated successfully", content = @Content(schema = @Schema(implementation = Post.class))),
             @ApiResponse(responseCode = "404", description = "Post not found"),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
-            @ApiResponse(responseCode = "403", description = "You can only update your own posts")
+            @ApiResponse(responseCode = "403", description = "You can only update your own posts"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
-    @PutMapping("/{id}")
+    // The content is a post's only editable field, so PUT and PATCH are the same update
+    @RequestMapping(value = "/{id}", method = {RequestMethod.PUT, RequestMethod.PATCH})
     public ResponseEntity<?> updatePost(
             @Parameter(description = "ID of the post to update", required = true) @PathVariable String id,
             @Valid @RequestBody UpdatePostRequest request,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(description = "ETag (or version) the change is based on; 412 if the resource has changed since") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            
             Post post = new Post();
             post.setContent(request.getContent());
             
-            Post updatedPost = postService.updatePost(id, post, userId);
-            return ResponseEntity.ok(updatedPost);
+            Post updatedPost = postService.updatePost(id, post, currentUser.getUserId(), ETags.ifMatchVersion(ifMatch, id));
+            return ETags.ok(updatedPost, PostService.etag(updatedPost));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(java.util.Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
                 return ResponseEntity.notFound().build();
@@ -143,12 +184,9 @@ public class PostController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deletePost(
             @Parameter(description = "ID of the post to delete", required = true) @PathVariable String id,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            
-            postService.deletePost(id, userId);
+            postService.deletePost(id, currentUser.getUserId());
             return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
@@ -158,13 +196,6 @@ public class PostController {
                     .body(java.util.Map.of("message", e.getMessage()));
         }
     }
-
-    private String extractToken(String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        throw new RuntimeException("Invalid authorization header");
-    }
 }
 
 
@@ -2,7 +2,8 @@ package com.example.todo.controller;
 
 import com.example.todo.model.User;
 import com.example.todo.repository.UserRepository;
-import com.example.todo.util.JwtUtil;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.service.UserImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,10 +12,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -24,13 +29,46 @@ import java.util.List;
 @Tag(name = "User Controller", description = "REST API for user management (Admin only)")
 public class UserController {
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final UserRepository userRepository;
-    private final JwtUtil jwtUtil;
+    private final UserImportService userImportService;
 
     @Autowired
-    public UserController(UserRepository userRepository, JwtUtil jwtUtil) {
+    public UserController(UserRepository userRepository, UserImportService userImportService) {
         this.userRepository = userRepository;
-        this.jwtUtil = jwtUtil;
+        this.userImportService = userImportService;
+    }
+
+    @Operation(
+            summary = "Bulk import users",
+            description = "Stream a CSV file (header: email,password,firstName,lastName[,role]) or NDJSON " +
+                    "(one JSON object per line with the same fields). The response is NDJSON with one result " +
+                    "per row (created, duplicate, invalid or failed) followed by a summary line. Requires ADMIN role.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import processed, see per-row results"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, APPLICATION_NDJSON}, produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> importUsers(
+            HttpServletRequest request,
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        // Check if user is admin
+        if (!currentUser.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        boolean ndjson = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(APPLICATION_NDJSON));
+
+        // Rows are read from the request and results written to the response batch by batch
+        StreamingResponseBody body = output -> userImportService.importUsers(request.getInputStream(), ndjson, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(body);
     }
 
     @Operation(
@@ -44,13 +82,10 @@ public class UserController {
     })
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers(
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String role = jwtUtil.getRoleFromToken(token);
-
             // Check if user is admin
-            if (!"ADMIN".equals(role)) {
+            if (!currentUser.isAdmin()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
@@ -76,13 +111,10 @@ public class UserController {
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(
             @Parameter(description = "ID of the user to retrieve", required = true) @PathVariable String id,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(hidden = true) @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = extractToken(authHeader);
-            String role = jwtUtil.getRoleFromToken(token);
-
             // Check if user is admin
-            if (!"ADMIN".equals(role)) {
+            if (!currentUser.isAdmin()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
@@ -96,13 +128,6 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
     }
-
-    private String extractToken(String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        throw new RuntimeException("Invalid authorization header");
-    }
 }
 
 
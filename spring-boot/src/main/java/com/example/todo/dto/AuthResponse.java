@@ -8,6 +8,12 @@ public class AuthResponse {
     @Schema(description = "JWT token", example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...")
     private String token;
 
+    @Schema(description = "Opaque refresh token, exchange it at /api/auth/refresh for a new access token", example = "q2xF8v...")
+    private String refreshToken;
+
+    @Schema(description = "Access token lifetime in seconds", example = "900")
+    private long expiresIn;
+
     @Schema(description = "Token type", example = "Bearer")
     private String type = "Bearer";
 
@@ -31,6 +37,12 @@ public class AuthResponse {
         this.role = role;
     }
 
+    public AuthResponse(String token, String refreshToken, long expiresIn, String userId, String email, String role) {
+        this(token, userId, email, role);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     // Getters and Setters
     public String getToken() {
         return token;
@@ -40,6 +52,22 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
     public String getType() {
         return type;
     }
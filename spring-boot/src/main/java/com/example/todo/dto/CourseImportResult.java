@@ -0,0 +1,87 @@
+package com.example.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of importing a course archive")
+public class CourseImportResult {
+
+    @Schema(description = "ID of the created course (all imported documents get new IDs)", example = "507f1f77bcf86cd799439011")
+    private String courseId;
+
+    @Schema(description = "Number of discussions imported", example = "40")
+    private long discussions;
+
+    @Schema(description = "Number of posts imported", example = "1200")
+    private long posts;
+
+    @Schema(description = "Number of enrollments imported", example = "350")
+    private long enrollments;
+
+    @Schema(description = "Documents not imported: posts of a discussion missing from the archive, or rejected writes", example = "0")
+    private long skipped;
+
+    @Schema(description = "Duration of the import in milliseconds", example = "5300")
+    private long millis;
+
+    // Constructors
+    public CourseImportResult() {
+    }
+
+    public CourseImportResult(String courseId, long discussions, long posts, long enrollments, long skipped, long millis) {
+        this.courseId = courseId;
+        this.discussions = discussions;
+        this.posts = posts;
+        this.enrollments = enrollments;
+        this.skipped = skipped;
+        this.millis = millis;
+    }
+
+    // Getters and Setters
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public long getDiscussions() {
+        return discussions;
+    }
+
+    public void setDiscussions(long discussions) {
+        this.discussions = discussions;
+    }
+
+    public long getPosts() {
+        return posts;
+    }
+
+    public void setPosts(long posts) {
+        this.posts = posts;
+    }
+
+    public long getEnrollments() {
+        return enrollments;
+    }
+
+    public void setEnrollments(long enrollments) {
+        this.enrollments = enrollments;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Course matching a search-as-you-type query")
+public class CourseSearchHit {
+
+    @Schema(description = "ID of the course", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Schema(description = "Name of the course", example = "Spring Boot Fundamentals")
+    private String name;
+
+    @Schema(description = "Relevance (higher is better; name matches rank above description matches)", example = "7")
+    private int score;
+
+    // Constructors
+    public CourseSearchHit() {
+    }
+
+    public CourseSearchHit(String id, String name, int score) {
+        this.id = id;
+        this.name = name;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
@@ -11,8 +11,7 @@ public class CreatePostRequest {
     @Schema(description = "ID of the discussion this post belongs to", example = "507f1f77bcf86cd799439011", required = true)
     private String discussionId;
 
-    @NotBlank(message = "Course ID is required")
-    @Schema(description = "ID of the course this post belongs to", example = "507f1f77bcf86cd799439011", required = true)
+    @Schema(description = "Ignored: the course is always the discussion's (still accepted from older clients)", example = "507f1f77bcf86cd799439011", deprecated = true)
     private String courseId;
 
     @NotBlank(message = "Post content is required")
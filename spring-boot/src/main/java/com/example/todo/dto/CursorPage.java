@@ -0,0 +1,53 @@
+package com.example.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of a keyset-paginated list")
+public class CursorPage<T> {
+
+    @Schema(description = "Items of this page, in stable order")
+    private List<T> items;
+
+    @Schema(description = "Opaque cursor for the next page; null when there are no more items", example = "YzE6NjU0YTFiMmMzZDRlNWY2YTdiOGM5ZDBl")
+    private String nextCursor;
+
+    @Schema(description = "True if another page follows", example = "true")
+    private boolean hasMore;
+
+    // Constructors
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
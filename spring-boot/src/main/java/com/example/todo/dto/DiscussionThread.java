@@ -0,0 +1,161 @@
+package com.example.todo.dto;
+
+import com.example.todo.model.Discussion;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(description = "A discussion with its first page of posts and the authors' names")
+public class DiscussionThread {
+
+    @Schema(description = "The discussion")
+    private Discussion discussion;
+
+    @Schema(description = "Name of the user who created the discussion", example = "John Doe")
+    private String authorName;
+
+    @Schema(description = "Posts in creation order (oldest first)")
+    private List<ThreadPost> posts;
+
+    @Schema(description = "Opaque cursor for the next page of posts; null when there are no more posts", example = "YzI6MTczMDg5NDQwMDAwMDo2NTRh")
+    private String nextCursor;
+
+    @Schema(description = "True if more posts follow", example = "true")
+    private boolean hasMore;
+
+    // Constructors
+    public DiscussionThread() {
+    }
+
+    public DiscussionThread(Discussion discussion, String authorName, List<ThreadPost> posts, String nextCursor, boolean hasMore) {
+        this.discussion = discussion;
+        this.authorName = authorName;
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public Discussion getDiscussion() {
+        return discussion;
+    }
+
+    public void setDiscussion(Discussion discussion) {
+        this.discussion = discussion;
+    }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public void setAuthorName(String authorName) {
+        this.authorName = authorName;
+    }
+
+    public List<ThreadPost> getPosts() {
+        return posts;
+    }
+
+    public void setPosts(List<ThreadPost> posts) {
+        this.posts = posts;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    @Schema(description = "Post of a discussion thread with its author's name")
+    public static class ThreadPost {
+
+        @Schema(description = "ID of the post", example = "507f1f77bcf86cd799439011")
+        private String id;
+
+        @Schema(description = "ID of the user who wrote the post", example = "507f1f77bcf86cd799439011")
+        private String userId;
+
+        @Schema(description = "Name of the user who wrote the post", example = "John Doe")
+        private String authorName;
+
+        @Schema(description = "Content of the post", example = "This is a great discussion topic!")
+        private String content;
+
+        @Schema(description = "Timestamp when the post was created", example = "2025-11-06T12:00:00")
+        private LocalDateTime createdAt;
+
+        @Schema(description = "Timestamp when the post was last updated", example = "2025-11-06T12:30:00")
+        private LocalDateTime updatedAt;
+
+        @Schema(description = "Version of the post, incremented on every update", example = "0")
+        private Long version;
+
+        // Getters and Setters
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+
+        public String getAuthorName() {
+            return authorName;
+        }
+
+        public void setAuthorName(String authorName) {
+            this.authorName = authorName;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(LocalDateTime updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public void setVersion(Long version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Partial course update; only the fields present are changed")
+public class PatchCourseRequest {
+
+    @Size(min = 1, max = 200, message = "Course name must be between 1 and 200 characters")
+    @Pattern(regexp = ".*\\S.*", message = "Course name must not be blank")
+    @Schema(description = "New name of the course", example = "Spring Boot Fundamentals")
+    private String name;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    @Schema(description = "New course description", example = "Learn Spring Boot from scratch")
+    private String description;
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.todo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Partial discussion update; only the fields present are changed")
+public class PatchDiscussionRequest {
+
+    @Size(min = 1, max = 200, message = "Title must be between 1 and 200 characters")
+    @Pattern(regexp = ".*\\S.*", message = "Title must not be blank")
+    @Schema(description = "New title of the discussion", example = "How to use Spring Boot?")
+    private String title;
+
+    @Size(max = 2000, message = "Description must not exceed 2000 characters")
+    @Schema(description = "New discussion description", example = "Let's discuss Spring Boot best practices")
+    private String description;
+
+    // Getters and Setters
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
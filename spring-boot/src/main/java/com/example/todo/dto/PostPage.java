@@ -0,0 +1,66 @@
+package com.example.todo.dto;
+
+import com.example.todo.model.Post;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A window of a discussion's posts, oldest first, with cursors to move in either direction")
+public class PostPage {
+
+    @Schema(description = "Posts in creation order (oldest first)")
+    private List<Post> items;
+
+    @Schema(description = "Pass as before= to load the posts preceding this window (scroll up)", example = "YzI6MTczMDg5NDQwMDAwMDo2NTRh")
+    private String beforeCursor;
+
+    @Schema(description = "Pass as after= to load the posts following this window, e.g. to poll for new posts; an empty window returns the cursor that was passed", example = "YzI6MTczMDg5NDQwMDAwMDo2NTRh")
+    private String afterCursor;
+
+    @Schema(description = "True if more posts follow in the direction that was requested (older for before= and latest, newer otherwise)", example = "true")
+    private boolean hasMore;
+
+    // Constructors
+    public PostPage() {
+    }
+
+    public PostPage(List<Post> items, String beforeCursor, String afterCursor, boolean hasMore) {
+        this.items = items;
+        this.beforeCursor = beforeCursor;
+        this.afterCursor = afterCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<Post> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Post> items) {
+        this.items = items;
+    }
+
+    public String getBeforeCursor() {
+        return beforeCursor;
+    }
+
+    public void setBeforeCursor(String beforeCursor) {
+        this.beforeCursor = beforeCursor;
+    }
+
+    public String getAfterCursor() {
+        return afterCursor;
+    }
+
+    public void setAfterCursor(String afterCursor) {
+        this.afterCursor = afterCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
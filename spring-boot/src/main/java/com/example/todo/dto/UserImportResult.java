@@ -0,0 +1,82 @@
+package com.example.todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of importing one row (streamed as one NDJSON line per row)")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+
+    public static final String CREATED = "created";
+    public static final String DUPLICATE = "duplicate";
+    public static final String INVALID = "invalid";
+    public static final String FAILED = "failed";
+
+    @Schema(description = "1-based row number in the uploaded file (header excluded)", example = "1")
+    private long row;
+
+    @Schema(description = "Email of the row", example = "user@example.com")
+    private String email;
+
+    @Schema(description = "created, duplicate, invalid or failed", example = "created")
+    private String status;
+
+    @Schema(description = "ID of the created user", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Schema(description = "Why the row was not imported", example = "Password must be at least 6 characters")
+    private String message;
+
+    // Constructors
+    public UserImportResult() {
+    }
+
+    public UserImportResult(long row, String email, String status, String id, String message) {
+        this.row = row;
+        this.email = email;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
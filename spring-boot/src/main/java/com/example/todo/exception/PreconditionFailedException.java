@@ -0,0 +1,12 @@
+package com.example.todo.exception;
+
+/**
+ * Thrown when an If-Match precondition does not hold, e.g. the document was changed
+ * by someone else since the client read it. Mapped to 412 Precondition Failed.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -182,6 +182,10 @@ public class Course {
     @Schema(description = "Timestamp when the course was last updated", example = "2025-11-06T12:30:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;  // NODE.JS: updatedAt?: Date;
 
+    // Incremented by every update; PUT/PATCH with If-Match only apply to this version
+    @Schema(description = "Version of the course, incremented on every update", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;  // NODE.JS: like Mongoose's __v version key
+
     // ============================================================================
     // CONSTRUCTORS
     // ============================================================================
@@ -269,6 +273,14 @@ public class Course {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
 
@@ -0,0 +1,168 @@
+package com.example.todo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Background deletion of a course and everything that belongs to it (posts, discussions,
+ * enrollments). The id is the course id. A worker holds a lease (leaseOwner / leaseUntil)
+ * while it deletes; if it dies, another worker takes the job over once the lease expires
+ * and continues where it stopped, since every step only deletes what is still there.
+ * Finished jobs are removed by a TTL index on completedAt.
+ */
+@Document(collection = "course_deletions")
+@Schema(description = "Progress of a background course deletion")
+public class CourseDeletion {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @Schema(description = "ID of the deleted course", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Schema(description = "PENDING, RUNNING, DONE or FAILED", example = "RUNNING")
+    private String status;
+
+    @Schema(description = "Posts deleted so far", example = "12000")
+    private long postsDeleted;
+
+    @Schema(description = "Discussions deleted so far", example = "40")
+    private long discussionsDeleted;
+
+    @Schema(description = "Enrollments deleted so far", example = "350")
+    private long enrollmentsDeleted;
+
+    @Schema(description = "Number of times a worker has started this job", example = "1")
+    private int attempts;
+
+    @Schema(description = "Last error, if an attempt failed")
+    private String error;
+
+    @Schema(description = "Worker currently holding the job")
+    private String leaseOwner;
+
+    @Schema(description = "Until when the worker's lease is valid")
+    private Date leaseUntil;
+
+    private Date createdAt;
+
+    private Date updatedAt;
+
+    private Date completedAt;
+
+    // Constructors
+    public CourseDeletion() {
+    }
+
+    public CourseDeletion(String courseId, Date now) {
+        this.id = courseId;
+        this.status = PENDING;
+        // Claimable immediately
+        this.leaseUntil = now;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getPostsDeleted() {
+        return postsDeleted;
+    }
+
+    public void setPostsDeleted(long postsDeleted) {
+        this.postsDeleted = postsDeleted;
+    }
+
+    public long getDiscussionsDeleted() {
+        return discussionsDeleted;
+    }
+
+    public void setDiscussionsDeleted(long discussionsDeleted) {
+        this.discussionsDeleted = discussionsDeleted;
+    }
+
+    public long getEnrollmentsDeleted() {
+        return enrollmentsDeleted;
+    }
+
+    public void setEnrollmentsDeleted(long enrollmentsDeleted) {
+        this.enrollmentsDeleted = enrollmentsDeleted;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public Date getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Date leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+}
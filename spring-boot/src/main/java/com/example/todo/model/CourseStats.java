@@ -0,0 +1,93 @@
+package com.example.todo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Activity counters of one course (the id is the course id). Updated with $inc whenever
+ * an enrollment, discussion or post is created or deleted, and periodically recounted
+ * by CourseStatsService to repair drift. A course without a document has no activity yet.
+ */
+@Document(collection = "course_stats")
+@Schema(description = "Activity counters of a course")
+public class CourseStats {
+
+    @Id
+    @Schema(description = "ID of the course", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Schema(description = "Number of enrolled users", example = "350")
+    private long enrollments;
+
+    @Schema(description = "Number of discussions", example = "40")
+    private long discussions;
+
+    @Schema(description = "Number of posts", example = "1200")
+    private long posts;
+
+    @Schema(description = "Latest enrollment, discussion or post", example = "2025-11-06T12:00:00")
+    private LocalDateTime lastActivityAt;
+
+    @Schema(description = "When the counters were last recounted", example = "2025-11-06T12:00:00")
+    private LocalDateTime reconciledAt;
+
+    // Constructors
+    public CourseStats() {
+    }
+
+    public CourseStats(String courseId) {
+        this.id = courseId;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getEnrollments() {
+        return enrollments;
+    }
+
+    public void setEnrollments(long enrollments) {
+        this.enrollments = enrollments;
+    }
+
+    public long getDiscussions() {
+        return discussions;
+    }
+
+    public void setDiscussions(long discussions) {
+        this.discussions = discussions;
+    }
+
+    public long getPosts() {
+        return posts;
+    }
+
+    public void setPosts(long posts) {
+        this.posts = posts;
+    }
+
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public void setReconciledAt(LocalDateTime reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+}
@@ -38,6 +38,19 @@ public class Discussion {
     @Schema(description = "Timestamp when the discussion was last updated", example = "2025-11-06T12:30:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
 
+    @Schema(description = "Version of the discussion, incremented on every update", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
+    // Post activity, maintained by PostService (no aggregation over posts needed to list by activity)
+    @Schema(description = "Number of posts in the discussion", example = "42", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long postCount;
+
+    @Schema(description = "Timestamp of the latest post (the creation time while there are no posts)", example = "2025-11-06T12:45:00", accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime lastPostAt;
+
+    @Schema(description = "ID of the user who wrote the latest post", example = "507f1f77bcf86cd799439011", accessMode = Schema.AccessMode.READ_ONLY)
+    private String lastPostAuthor;
+
     // Constructors
     public Discussion() {
     }
@@ -104,6 +117,38 @@ public class Discussion {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getPostCount() {
+        return postCount;
+    }
+
+    public void setPostCount(Long postCount) {
+        this.postCount = postCount;
+    }
+
+    public LocalDateTime getLastPostAt() {
+        return lastPostAt;
+    }
+
+    public void setLastPostAt(LocalDateTime lastPostAt) {
+        this.lastPostAt = lastPostAt;
+    }
+
+    public String getLastPostAuthor() {
+        return lastPostAuthor;
+    }
+
+    public void setLastPostAuthor(String lastPostAuthor) {
+        this.lastPostAuthor = lastPostAuthor;
+    }
 }
 
 
@@ -39,6 +39,9 @@ public class Post {
     @Schema(description = "Timestamp when the post was last updated", example = "2025-11-06T12:30:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
 
+    @Schema(description = "Version of the post, incremented on every update", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // Constructors
     public Post() {
     }
@@ -106,6 +109,14 @@ public class Post {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
 
 
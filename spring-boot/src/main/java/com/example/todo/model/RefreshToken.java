@@ -0,0 +1,113 @@
+package com.example.todo.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Server-side record of an issued refresh token.
+ * Only the SHA-256 hash of the token is stored; the raw value is given to the client once.
+ * Documents are removed by a TTL index on expiresAt.
+ */
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+
+    // Why a token was revoked (revokedReason)
+    public static final String ROTATED = "ROTATED";
+    public static final String LOGGED_OUT = "LOGGED_OUT";
+    public static final String REUSE_DETECTED = "REUSE_DETECTED";
+
+    @Id
+    private String id;
+
+    private String tokenHash;
+
+    private String userId;
+
+    private boolean revoked;
+
+    private String revokedReason;
+
+    private Date revokedAt;
+
+    private Date createdAt;
+
+    private Date expiresAt;
+
+    // Constructors
+    public RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, String userId, Date createdAt, Date expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+
+    public String getRevokedReason() {
+        return revokedReason;
+    }
+
+    public void setRevokedReason(String revokedReason) {
+        this.revokedReason = revokedReason;
+    }
+
+    public Date getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Date revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
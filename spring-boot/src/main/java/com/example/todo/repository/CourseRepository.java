@@ -1,11 +1,19 @@
 package com.example.todo.repository;
 
 import com.example.todo.model.Course;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CourseRepository extends MongoRepository<Course, String> {
+
+    // Keyset pagination on _id: no count query and no skip, so every page costs the same
+    List<Course> findAllBy(Pageable pageable);
+
+    List<Course> findByIdGreaterThan(String id, Pageable pageable);
 }
 
 
@@ -2,16 +2,23 @@ package com.example.todo.repository;
 
 import com.example.todo.model.Discussion;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DiscussionRepository extends MongoRepository<Discussion, String> {
     
     List<Discussion> findByCourseId(String courseId);
-    
-    List<Discussion> findByCourseIdIn(List<String> courseIds);
+
+    // Version projections for ETag checks (the creator is needed to explain a failed conditional update)
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'updatedAt': 1, 'version': 1, 'createdBy': 1 }")
+    Optional<Discussion> findVersionById(String id);
+
+    @Query(value = "{ 'courseId': ?0 }", fields = "{ 'updatedAt': 1 }")
+    List<Discussion> findVersionsByCourseId(String courseId);
 }
 
 
@@ -2,9 +2,11 @@ package com.example.todo.repository;
 
 import com.example.todo.model.Post;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends MongoRepository<Post, String> {
@@ -12,6 +14,13 @@ public interface PostRepository extends MongoRepository<Post, String> {
     List<Post> findByDiscussionId(String discussionId);
     
     List<Post> findByDiscussionIdOrderByCreatedAtAsc(String discussionId);
+
+    // Version projections for ETag checks (the author is needed to explain a failed conditional update)
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'updatedAt': 1, 'version': 1, 'userId': 1 }")
+    Optional<Post> findVersionById(String id);
+
+    @Query(value = "{ 'discussionId': ?0 }", fields = "{ 'updatedAt': 1 }")
+    List<Post> findVersionsByDiscussionId(String discussionId);
 }
 
 
@@ -0,0 +1,25 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Revokes a live token (logout); rotation uses findAndModify in RefreshTokenService
+    @Query("{ 'tokenHash': ?0, 'revoked': false, 'expiresAt': { '$gt': ?1 } }")
+    @Update("{ '$set': { 'revoked': true, 'revokedReason': ?2, 'revokedAt': ?1 } }")
+    long revokeIfActive(String tokenHash, Date now, String reason);
+
+    @Query("{ 'userId': ?0, 'revoked': false }")
+    @Update("{ '$set': { 'revoked': true, 'revokedReason': ?2, 'revokedAt': ?1 } }")
+    long revokeAllByUserId(String userId, Date now, String reason);
+}
@@ -0,0 +1,19 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+@Repository
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+
+    // Only the ids are needed to rebuild the in-memory filter
+    @Query(value = "{ 'expiresAt': { '$gt': ?0 } }", fields = "{ '_id': 1 }")
+    Stream<RevokedToken> streamActiveIds(Date now);
+
+    long countByExpiresAtAfter(Date now);
+}
@@ -0,0 +1,16 @@
+package com.example.todo.repository;
+
+/**
+ * Closed projection of User with only the fields signin needs.
+ * Spring Data turns it into a field projection, so the rest of the document is never read.
+ */
+public interface UserCredentials {
+
+    String getId();
+
+    String getEmail();
+
+    String getPassword();
+
+    String getRole();
+}
@@ -1,17 +1,46 @@
 package com.example.todo.repository;
 
+import com.example.todo.config.CacheConfig;
 import com.example.todo.model.User;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
-    
-    Optional<User> findByEmail(String email);
-    
-    boolean existsByEmail(String email);
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, key = "#p0", sync = true)
+    Optional<User> findById(String id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, key = "#result.id")
+    <S extends User> S insert(S user);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, key = "#result.id")
+    <S extends User> S save(S user);
+
+    // Projection: only id, email, password hash and role are read (signin). Not cached:
+    // signin needs the current hash, and the bcrypt check dwarfs the indexed lookup
+    Optional<UserCredentials> findCredentialsByEmail(String email);
+
+    // Only the emails that already exist, for bulk import deduplication
+    @Query(value = "{ 'email': { '$in': ?0 } }", fields = "{ 'email': 1 }")
+    List<User> findEmailsIn(Collection<String> emails);
+
+    // Replaces the hash only if it is still the one we verified (no lost updates)
+    @Query("{ '_id': ?0, 'password': ?1 }")
+    @Update("{ '$set': { 'password': ?2 } }")
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, key = "#p0")
+    long updatePasswordHash(String id, String currentHash, String newHash);
 }
 
 
@@ -0,0 +1,65 @@
+package com.example.todo.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+import java.util.Date;
+
+/**
+ * Principal built once per request from the verified JWT claims.
+ * Stored in the SecurityContext by JwtAuthenticationFilter and injected into
+ * controllers with @AuthenticationPrincipal, so no code path re-parses the token.
+ */
+public final class AuthenticatedUser implements Principal {
+
+    private final String userId;
+    private final String email;
+    private final String role;
+    private final Date expiresAt;
+
+    public AuthenticatedUser(String userId, String email, String role, Date expiresAt) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        return new AuthenticatedUser(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.get("role", String.class),
+                claims.getExpiration()
+        );
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+
+    @Override
+    public String getName() {
+        return userId;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{userId='" + userId + "', role='" + role + "'}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.todo.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Measures BCrypt on the current host and picks the highest cost whose single
+ * hash still fits in the configured latency budget. Every +1 cost doubles the
+ * work, so only a few measurements are needed.
+ */
+public final class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-123";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        // Warm up the JIT so the first measurement is not inflated
+        new BCryptPasswordEncoder(minCost).encode(SAMPLE_PASSWORD);
+
+        int cost = minCost;
+        long millis = measure(cost);
+        while (cost < maxCost) {
+            long next = measure(cost + 1);
+            if (next > targetMillis) {
+                break;
+            }
+            cost++;
+            millis = next;
+        }
+
+        log.info("BCrypt cost calibrated to {} ({} ms per hash, target {} ms)", cost, millis, targetMillis);
+        return cost;
+    }
+
+    private static long measure(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -5,21 +5,22 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 public class CurrentUser {
 
-    public static String getUserId() {
+    public static AuthenticatedUser get() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof String) {
-            return (String) authentication.getPrincipal();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) authentication.getPrincipal();
         }
         return null;
     }
 
+    public static String getUserId() {
+        AuthenticatedUser user = get();
+        return user != null ? user.getUserId() : null;
+    }
+
     public static boolean isAdmin() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getAuthorities() != null) {
-            return authentication.getAuthorities().stream()
-                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        }
-        return false;
+        AuthenticatedUser user = get();
+        return user != null && user.isAdmin();
     }
 }
 
@@ -29,4 +30,3 @@ public class CurrentUser {
 
 
 
-
@@ -1,6 +1,8 @@
 package com.example.todo.security;
 
+import com.example.todo.service.TokenRevocationService;
 import com.example.todo.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,15 +24,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         String path = request.getRequestURI();
-        
+
         // Skip JWT validation for Swagger UI and public endpoints
-        if (path.startsWith("/swagger-ui") || 
-            path.startsWith("/api-docs") || 
+        if (path.startsWith("/swagger-ui") ||
+            path.startsWith("/api-docs") ||
             path.startsWith("/v3/api-docs") ||
             path.startsWith("/swagger-resources") ||
             path.startsWith("/webjars") ||
@@ -47,24 +52,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
-            final String token = authHeader.substring(7);
-            final String userId = jwtUtil.getUserIdFromToken(token);
-            final String role = jwtUtil.getRoleFromToken(token);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                // Single verification: signature and expiry are checked together,
+                // and the resulting principal is reused by every controller.
+                final String token = authHeader.substring(7);
+                Claims claims = jwtUtil.parseToken(token);
+                AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
 
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtUtil.validateToken(token)) {
+                // Revoked tokens (logout) are looked up in the in-memory Bloom filter, no I/O
+                if (principal.getUserId() != null && !tokenRevocationService.isRevoked(claims.getId())) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userId,
+                            principal,
                             null,
-                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.getRole()))
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
+            } catch (Exception e) {
+                // Token is invalid, continue without authentication
             }
-        } catch (Exception e) {
-            // Token is invalid, continue without authentication
         }
 
         filterChain.doFilter(request, response);
@@ -0,0 +1,105 @@
+package com.example.todo.security;
+
+import com.example.todo.exception.TooManyRequestsException;
+import com.example.todo.util.Emails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles signin attempts per email and per client IP before any database
+ * or BCrypt work is done. Each key has a token bucket; after a few failed
+ * attempts the key is additionally blocked with exponential backoff.
+ * A successful signin clears the email's failure count (not the IP's).
+ */
+@Component
+public class LoginThrottle {
+
+    private final TokenBucketLimiter emailLimiter;
+    private final TokenBucketLimiter ipLimiter;
+    private final Counter emailThrottled;
+    private final Counter ipThrottled;
+
+    @Autowired
+    public LoginThrottle(
+            MeterRegistry meterRegistry,
+            @Value("${auth.throttle.email.burst:10}") int emailBurst,
+            @Value("${auth.throttle.email.per-minute:10}") int emailPerMinute,
+            @Value("${auth.throttle.ip.burst:50}") int ipBurst,
+            @Value("${auth.throttle.ip.per-minute:60}") int ipPerMinute,
+            @Value("${auth.throttle.free-failures:5}") int freeFailures,
+            @Value("${auth.throttle.backoff.base-ms:1000}") long baseBackoffMillis,
+            @Value("${auth.throttle.backoff.max-ms:900000}") long maxBackoffMillis,
+            @Value("${auth.throttle.idle-ms:900000}") long idleMillis,
+            @Value("${auth.throttle.wheel-tick-ms:10000}") long tickMillis,
+            @Value("${auth.throttle.max-keys:100000}") int maxKeys,
+            @Value("${auth.throttle.stripes:64}") int stripes) {
+        this.emailLimiter = new TokenBucketLimiter(emailBurst, emailPerMinute, freeFailures,
+                baseBackoffMillis, maxBackoffMillis, idleMillis, tickMillis, maxKeys, stripes);
+        // IPs are shared (NAT, offices), so they get a larger budget and twice the free failures
+        this.ipLimiter = new TokenBucketLimiter(ipBurst, ipPerMinute, freeFailures * 2,
+                baseBackoffMillis, maxBackoffMillis, idleMillis, tickMillis, maxKeys, stripes);
+
+        this.emailThrottled = throttledCounter(meterRegistry, "email");
+        this.ipThrottled = throttledCounter(meterRegistry, "ip");
+        Gauge.builder("auth.login.throttle.keys", emailLimiter, TokenBucketLimiter::size)
+                .tag("key", "email")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", ipLimiter, TokenBucketLimiter::size)
+                .tag("key", "ip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Throws TooManyRequestsException if either the email or the client IP is over its limit.
+     */
+    public void checkAllowed(String email, String clientIp) {
+        long ipWait = ipLimiter.tryAcquire(clientIp);
+        if (ipWait > 0) {
+            ipThrottled.increment();
+            throw tooMany(ipWait);
+        }
+        long emailWait = emailLimiter.tryAcquire(normalize(email));
+        if (emailWait > 0) {
+            emailThrottled.increment();
+            throw tooMany(emailWait);
+        }
+    }
+
+    public void recordFailure(String email, String clientIp) {
+        emailLimiter.recordFailure(normalize(email));
+        ipLimiter.recordFailure(clientIp);
+    }
+
+    public void recordSuccess(String email) {
+        emailLimiter.reset(normalize(email));
+    }
+
+    @Scheduled(fixedRateString = "${auth.throttle.wheel-tick-ms:10000}")
+    public void evictIdleKeys() {
+        emailLimiter.advance();
+        ipLimiter.advance();
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : Emails.normalize(email);
+    }
+
+    private static TooManyRequestsException tooMany(long waitNanos) {
+        long seconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        return new TooManyRequestsException("Too many signin attempts, please retry later", seconds);
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.login.throttled")
+                .description("Signin attempts rejected by the login throttle")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
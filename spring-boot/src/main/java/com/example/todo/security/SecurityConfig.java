@@ -1,16 +1,21 @@
 package com.example.todo.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -18,9 +23,27 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    /**
+     * Delegating encoder: new hashes are stored as "{bcrypt}$2a$<cost>$...".
+     * The cost is either pinned with auth.password.bcrypt-cost or calibrated at
+     * startup to auth.password.target-latency-ms on this host. Legacy hashes
+     * without an id prefix are still verified as plain BCrypt, and
+     * upgradeEncoding() reports them (and lower-cost hashes) for rehashing.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${auth.password.bcrypt-cost:0}") int bcryptCost,
+            @Value("${auth.password.target-latency-ms:100}") long targetLatencyMs,
+            @Value("${auth.password.min-bcrypt-cost:10}") int minBcryptCost,
+            @Value("${auth.password.max-bcrypt-cost:16}") int maxBcryptCost) {
+        int cost = bcryptCost > 0
+                ? bcryptCost
+                : BCryptCostCalibrator.calibrate(targetLatencyMs, minBcryptCost, maxBcryptCost);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                "bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(cost)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
 
     @Bean
@@ -29,6 +52,9 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches only write the result of a request that was
+                        // already authorized (CompletableFuture / streaming responses)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Allow all Swagger/OpenAPI endpoints
                         .requestMatchers(
                                 "/swagger-ui/**",
@@ -44,6 +70,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         // Allow home endpoint
                         .requestMatchers("/").permitAll()
+                        // Allow health checks (other actuator endpoints require a token)
+                        .requestMatchers("/actuator/health").permitAll()
                         // All other requests require authentication
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,208 @@
+package com.example.todo.security;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-key token buckets with exponential backoff after repeated failures.
+ *
+ * Keys are spread over a fixed number of lock stripes, each an access-ordered
+ * LinkedHashMap capped at maxKeys / stripes (least recently used key is dropped).
+ * Idle keys are evicted by a hashed timing wheel that advance() turns one slot per tick.
+ */
+final class TokenBucketLimiter {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int freeFailures;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long idleNanos;
+    private final long tickNanos;
+
+    private final Stripe[] stripes;
+    private final List<Set<String>> wheel;
+    private long currentTick;
+
+    TokenBucketLimiter(int burst, int perMinute, int freeFailures, long baseBackoffMillis, long maxBackoffMillis,
+                       long idleMillis, long tickMillis, int maxKeys, int stripeCount) {
+        this.capacity = burst;
+        this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.freeFailures = freeFailures;
+        this.baseBackoffNanos = TimeUnit.MILLISECONDS.toNanos(baseBackoffMillis);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMillis);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+
+        int perStripe = Math.max(1, maxKeys / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+
+        int slots = (int) (idleMillis / tickMillis) + 2;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Takes one token for the key.
+     * Returns 0 if the attempt is allowed, otherwise the nanoseconds until it would be.
+     */
+    long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.put(key, bucket);
+                schedule(key, idleNanos);
+            }
+            bucket.refill(now);
+            bucket.lastSeen = now;
+
+            if (bucket.blocked) {
+                // nanoTime values may be negative or wrap: compare differences only
+                long remaining = bucket.blockedUntil - now;
+                if (remaining > 0) {
+                    return remaining;
+                }
+                bucket.blocked = false;
+            }
+            if (bucket.tokens < 1) {
+                return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+            }
+            bucket.tokens -= 1;
+            return 0;
+        }
+    }
+
+    void recordFailure(String key) {
+        long now = System.nanoTime();
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                return;
+            }
+            bucket.failures++;
+            int over = bucket.failures - freeFailures;
+            if (over >= 0) {
+                // 1x, 2x, 4x, ... the base delay, capped
+                long backoff = over >= 62 ? maxBackoffNanos : Math.min(maxBackoffNanos, baseBackoffNanos << Math.min(over, 30));
+                bucket.blocked = true;
+                bucket.blockedUntil = now + backoff;
+            }
+        }
+    }
+
+    void reset(String key) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket != null) {
+                bucket.failures = 0;
+                bucket.blocked = false;
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Moves the wheel one slot and evicts keys in that slot that have been idle
+     * (and are not blocked). Keys that are still active are rescheduled.
+     * Must be called from a single thread every tickMillis.
+     */
+    void advance() {
+        long now = System.nanoTime();
+        Set<String> slot;
+        synchronized (wheel) {
+            currentTick++;
+            slot = wheel.get((int) (currentTick % wheel.size()));
+        }
+        for (String key : slot) {
+            slot.remove(key);
+            Stripe stripe = stripeFor(key);
+            synchronized (stripe) {
+                Bucket bucket = stripe.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                long keepUntil = bucket.lastSeen + idleNanos;
+                if (bucket.blocked && bucket.blockedUntil - keepUntil > 0) {
+                    keepUntil = bucket.blockedUntil;
+                }
+                if (now - keepUntil >= 0) {
+                    stripe.remove(key);
+                } else {
+                    schedule(key, keepUntil - now);
+                }
+            }
+        }
+    }
+
+    private void schedule(String key, long delayNanos) {
+        synchronized (wheel) {
+            long ticks = Math.min(wheel.size() - 1, Math.max(1, (delayNanos + tickNanos - 1) / tickNanos));
+            wheel.get((int) ((currentTick + ticks) % wheel.size())).add(key);
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[(h & 0x7fffffff) % stripes.length];
+    }
+
+    private final class Bucket {
+        double tokens;
+        long lastRefill;
+        long lastSeen;
+        int failures;
+        // blockedUntil is only meaningful while blocked (any nanoTime value is a valid deadline)
+        boolean blocked;
+        long blockedUntil;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+            this.lastSeen = now;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -1,93 +1,164 @@
 package com.example.todo.service;
 
 import com.example.todo.dto.AuthResponse;
+import com.example.todo.dto.RefreshTokenRequest;
 import com.example.todo.dto.SigninRequest;
 import com.example.todo.dto.SignupRequest;
 import com.example.todo.model.User;
+import com.example.todo.repository.UserCredentials;
 import com.example.todo.repository.UserRepository;
+import com.example.todo.security.LoginThrottle;
+import com.example.todo.util.Emails;
 import com.example.todo.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    // Database work after a hash completes runs here, so hashing threads only ever hash
+    private final Executor taskExecutor;
 
     @Autowired
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, PasswordHashingService passwordHashingService, JwtUtil jwtUtil,
+                       LoginThrottle loginThrottle, RefreshTokenService refreshTokenService,
+                       TokenRevocationService tokenRevocationService,
+                       @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtil = jwtUtil;
+        this.loginThrottle = loginThrottle;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.taskExecutor = taskExecutor;
     }
 
-    public AuthResponse signup(SignupRequest request) {
-        // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("User with email " + request.getEmail() + " already exists");
-        }
-
-        // Create new user
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setRole("USER");
-        user.setCreatedAt(LocalDateTime.now());
-        user.setUpdatedAt(LocalDateTime.now());
-
-        user = userRepository.save(user);
-
-        // Generate JWT token
-        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
+    public CompletableFuture<AuthResponse> signup(SignupRequest request) {
+        return register(request, "USER");
+    }
 
-        return new AuthResponse(token, user.getId(), user.getEmail(), user.getRole());
+    public CompletableFuture<AuthResponse> signin(SigninRequest request, String clientIp) {
+        // Reject throttled emails / IPs before any database or hashing work
+        loginThrottle.checkAllowed(request.getEmail(), clientIp);
+
+        // Fetch only id, email, password hash and role
+        UserCredentials user = userRepository.findCredentialsByEmail(Emails.normalize(request.getEmail()))
+                .orElseThrow(() -> {
+                    loginThrottle.recordFailure(request.getEmail(), clientIp);
+                    return new RuntimeException("Invalid email or password");
+                });
+
+        // Verify password on the hashing pool, not on the request thread; the refresh token
+        // is then stored from the task executor
+        return passwordHashingService.matches(request.getPassword(), user.getPassword())
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        loginThrottle.recordFailure(request.getEmail(), clientIp);
+                        throw new RuntimeException("Invalid email or password");
+                    }
+                    loginThrottle.recordSuccess(request.getEmail());
+
+                    // Upgrade legacy / lower-cost hashes in the background
+                    if (passwordHashingService.needsRehash(user.getPassword())) {
+                        rehashInBackground(user.getId(), user.getPassword(), request.getPassword());
+                    }
+
+                    return issueTokens(user.getId(), user.getEmail(), user.getRole());
+                }, taskExecutor);
     }
 
-    public AuthResponse signin(SigninRequest request) {
-        // Find user by email
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+    public CompletableFuture<AuthResponse> signupAdmin(SignupRequest request) {
+        return register(request, "ADMIN");
+    }
 
-        // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid email or password");
-        }
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        // Single use: the presented refresh token is revoked and replaced
+        String userId = refreshTokenService.consume(request.getRefreshToken());
 
-        // Generate JWT token
-        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
+        // Reload the user so role changes take effect on the next access token
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
 
-        return new AuthResponse(token, user.getId(), user.getEmail(), user.getRole());
+        return issueTokens(user.getId(), user.getEmail(), user.getRole());
     }
 
-    public AuthResponse signupAdmin(SignupRequest request) {
-        // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("User with email " + request.getEmail() + " already exists");
+    public void logout(String accessToken, String refreshToken) {
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtUtil.parseToken(accessToken);
+                tokenRevocationService.revoke(claims.getId(), claims.getSubject(), claims.getExpiration());
+            } catch (Exception e) {
+                // Invalid or already expired: nothing left to revoke
+            }
         }
+    }
 
-        // Create new admin user
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setRole("ADMIN");
-        user.setCreatedAt(LocalDateTime.now());
-        user.setUpdatedAt(LocalDateTime.now());
+    private AuthResponse issueTokens(String userId, String email, String role) {
+        // Generate short-lived JWT access token plus a refresh token
+        String token = jwtUtil.generateToken(userId, email, role);
+        String refreshToken = refreshTokenService.issue(userId);
 
-        user = userRepository.save(user);
+        return new AuthResponse(token, refreshToken, jwtUtil.getExpirationSeconds(), userId, email, role);
+    }
 
-        // Generate JWT token
-        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
+    private void rehashInBackground(String userId, String currentHash, String rawPassword) {
+        passwordHashingService.encode(rawPassword)
+                .thenAcceptAsync(newHash -> userRepository.updatePasswordHash(userId, currentHash, newHash), taskExecutor)
+                .exceptionally(ex -> {
+                    // Not fatal: the old hash keeps working and we retry on the next login
+                    log.debug("Password rehash for user {} skipped: {}", userId, ex.getMessage());
+                    return null;
+                });
+    }
 
-        return new AuthResponse(token, user.getId(), user.getEmail(), user.getRole());
+    private CompletableFuture<AuthResponse> register(SignupRequest request, String role) {
+        String email = Emails.normalize(request.getEmail());
+
+        // Hash on the hashing pool, then insert the user and its refresh token from the task executor
+        return passwordHashingService.encode(request.getPassword())
+                .thenApplyAsync(passwordHash -> {
+                    // Create new user
+                    User user = new User();
+                    user.setEmail(email);
+                    user.setPassword(passwordHash);
+                    user.setFirstName(request.getFirstName());
+                    user.setLastName(request.getLastName());
+                    user.setRole(role);
+                    user.setCreatedAt(LocalDateTime.now());
+                    user.setUpdatedAt(LocalDateTime.now());
+
+                    // Single round trip: the unique index on users.email rejects duplicates,
+                    // including two concurrent signups with the same address
+                    User saved;
+                    try {
+                        saved = userRepository.insert(user);
+                    } catch (DuplicateKeyException e) {
+                        throw new RuntimeException("User with email " + email + " already exists");
+                    }
+
+                    return issueTokens(saved.getId(), saved.getEmail(), saved.getRole());
+                }, taskExecutor);
     }
 }
 
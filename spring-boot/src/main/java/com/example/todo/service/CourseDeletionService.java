@@ -0,0 +1,271 @@
+package com.example.todo.service;
+
+import com.example.todo.model.Course;
+import com.example.todo.model.CourseDeletion;
+import com.example.todo.model.CourseEnrollment;
+import com.example.todo.model.CourseStats;
+import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Deletes courses together with their posts, discussions and enrollments.
+ *
+ * A request only records a CourseDeletion job and removes the course document, so the
+ * course disappears at once and the request returns immediately. A single background
+ * worker per instance then deletes the dependent documents in batches of _ids (find with
+ * a limit, then delete by _id), pausing between batches so Mongo is never flooded.
+ * Progress counters are written with every batch. Jobs are leased, so with several
+ * instances each job runs on one of them, and a job whose worker died is resumed by
+ * another worker when its lease runs out.
+ */
+@Service
+public class CourseDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseDeletionService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final long batchPauseMillis;
+    private final long leaseMillis;
+    private final int maxAttempts;
+
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName()
+            + "/" + UUID.randomUUID().toString().substring(0, 8);
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("course-deletion-"));
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    @Autowired
+    public CourseDeletionService(
+            MongoTemplate mongoTemplate,
+            @Value("${courses.deletion.batch-size:1000}") int batchSize,
+            @Value("${courses.deletion.batch-pause-ms:100}") long batchPauseMillis,
+            @Value("${courses.deletion.lease-ms:60000}") long leaseMillis,
+            @Value("${courses.deletion.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Records the deletion job, removes the course document and wakes the worker.
+     */
+    public CourseDeletion requestDeletion(String courseId) {
+        CourseDeletion job = new CourseDeletion(courseId, new Date());
+        // The job is stored first: if we crash before the course is removed, the worker removes it
+        mongoTemplate.save(job);
+        mongoTemplate.remove(query(where("_id").is(courseId)), Course.class);
+        wakeUp();
+        return job;
+    }
+
+    /**
+     * Same as requestDeletion for every course, one batch of courses at a time.
+     * Returns the number of courses scheduled for deletion.
+     */
+    public long requestDeletionOfAllCourses() {
+        long total = 0;
+        while (true) {
+            List<String> courseIds = findIds(new Query(), Course.class);
+            if (courseIds.isEmpty()) {
+                break;
+            }
+            Date now = new Date();
+            BulkOperations jobs = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseDeletion.class);
+            for (String courseId : courseIds) {
+                jobs.replaceOne(query(where("_id").is(courseId)), new CourseDeletion(courseId, now),
+                        FindAndReplaceOptions.options().upsert());
+            }
+            jobs.execute();
+            mongoTemplate.remove(query(where("_id").in(courseIds)), Course.class);
+            total += courseIds.size();
+        }
+        wakeUp();
+        return total;
+    }
+
+    public Optional<CourseDeletion> getDeletion(String courseId) {
+        return Optional.ofNullable(mongoTemplate.findById(courseId, CourseDeletion.class));
+    }
+
+    public List<CourseDeletion> getRecentDeletions(int limit) {
+        return mongoTemplate.find(new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(Math.max(1, Math.min(limit, 500))), CourseDeletion.class);
+    }
+
+    // Picks up jobs from other (dead) instances and jobs whose retry delay has passed
+    @Scheduled(fixedDelayString = "${courses.deletion.poll-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupts the pause between batches; the current job is released for the next worker
+        worker.shutdownNow();
+    }
+
+    private void wakeUp() {
+        if (busy.compareAndSet(false, true)) {
+            try {
+                worker.execute(this::drain);
+            } catch (RuntimeException e) {
+                // Executor shut down (application stopping)
+                busy.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            CourseDeletion job;
+            while (!Thread.currentThread().isInterrupted() && (job = claimNext()) != null) {
+                run(job);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Course deletion worker stopped: {}", e.getMessage());
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    private CourseDeletion claimNext() {
+        Date now = new Date();
+        Query claimable = query(where("status").in(CourseDeletion.PENDING, CourseDeletion.RUNNING)
+                .and("leaseUntil").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update claim = new Update()
+                .set("status", CourseDeletion.RUNNING)
+                .set("leaseOwner", workerId)
+                .set("leaseUntil", new Date(now.getTime() + leaseMillis))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(claimable, claim, FindAndModifyOptions.options().returnNew(true),
+                CourseDeletion.class);
+    }
+
+    private void run(CourseDeletion job) {
+        String courseId = job.getId();
+        try {
+            // Posts that reference the course directly
+            deleteInBatches(job, where("courseId").is(courseId), Post.class, "postsDeleted");
+
+            // Discussions, each batch after the posts in those discussions
+            while (true) {
+                List<String> discussionIds = findIds(query(where("courseId").is(courseId)), Discussion.class);
+                if (discussionIds.isEmpty()) {
+                    break;
+                }
+                deleteInBatches(job, where("discussionId").in(discussionIds), Post.class, "postsDeleted");
+                long deleted = mongoTemplate.remove(query(where("_id").in(discussionIds)), Discussion.class)
+                        .getDeletedCount();
+                recordProgress(job, "discussionsDeleted", deleted);
+            }
+
+            deleteInBatches(job, where("courseId").is(courseId), CourseEnrollment.class, "enrollmentsDeleted");
+
+            // In case the request stopped between recording the job and removing the course
+            mongoTemplate.remove(query(where("_id").is(courseId)), Course.class);
+            mongoTemplate.remove(query(where("_id").is(courseId)), CourseStats.class);
+
+            finish(job, new Update()
+                    .set("status", CourseDeletion.DONE)
+                    .set("completedAt", new Date())
+                    .unset("error"));
+            log.info("Deleted course {}", courseId);
+        } catch (LeaseLostException e) {
+            log.warn("Lost the lease on deletion of course {}; another worker continues it", courseId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Release the lease so the job resumes right away elsewhere (or after a restart)
+            finish(job, new Update().set("leaseUntil", new Date()));
+        } catch (RuntimeException e) {
+            log.warn("Deletion of course {} failed (attempt {}): {}", courseId, job.getAttempts(), e.getMessage());
+            boolean giveUp = job.getAttempts() >= maxAttempts;
+            finish(job, new Update()
+                    .set("status", giveUp ? CourseDeletion.FAILED : CourseDeletion.PENDING)
+                    .set("error", e.getMessage())
+                    // Retry after one lease period
+                    .set("leaseUntil", new Date(System.currentTimeMillis() + leaseMillis)));
+        }
+    }
+
+    private void deleteInBatches(CourseDeletion job, Criteria criteria, Class<?> entityClass, String counter)
+            throws InterruptedException {
+        while (true) {
+            List<String> ids = findIds(query(criteria), entityClass);
+            if (ids.isEmpty()) {
+                return;
+            }
+            long deleted = mongoTemplate.remove(query(where("_id").in(ids)), entityClass).getDeletedCount();
+            recordProgress(job, counter, deleted);
+            if (batchPauseMillis > 0) {
+                Thread.sleep(batchPauseMillis);
+            }
+        }
+    }
+
+    private List<String> findIds(Query query, Class<?> entityClass) {
+        query.limit(batchSize).fields().include("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(entityClass)).stream()
+                .map(document -> document.get("_id").toString())
+                .toList();
+    }
+
+    // Adds to the counter and renews the lease; fails if another worker has taken the job over
+    private void recordProgress(CourseDeletion job, String counter, long deleted) {
+        Date now = new Date();
+        long matched = mongoTemplate.updateFirst(
+                query(where("_id").is(job.getId()).and("leaseOwner").is(workerId)),
+                new Update()
+                        .inc(counter, deleted)
+                        .set("leaseUntil", new Date(now.getTime() + leaseMillis))
+                        .set("updatedAt", now),
+                CourseDeletion.class).getMatchedCount();
+        if (matched == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    private void finish(CourseDeletion job, Update update) {
+        mongoTemplate.updateFirst(
+                query(where("_id").is(job.getId()).and("leaseOwner").is(workerId)),
+                update.unset("leaseOwner").set("updatedAt", new Date()),
+                CourseDeletion.class);
+    }
+
+    private static final class LeaseLostException extends RuntimeException {
+    }
+}
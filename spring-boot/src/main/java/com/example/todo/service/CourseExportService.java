@@ -0,0 +1,235 @@
+package com.example.todo.service;
+
+import com.example.todo.exception.TooManyRequestsException;
+import com.example.todo.model.Course;
+import com.example.todo.model.CourseEnrollment;
+import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Streams a course with its discussions, posts and enrollments as an NDJSON archive,
+ * one record per line:
+ *
+ *   {"type":"archive","version":1,"courseId":..,"exportedAt":..}
+ *   {"type":"course","data":{..}}
+ *   {"type":"discussion","data":{..}}   each discussion is followed by its posts
+ *   {"type":"post","data":{..}}
+ *   {"type":"enrollment","data":{..}}
+ *   {"type":"end","discussions":n,"posts":n,"enrollments":n}
+ *
+ * Documents are read from Mongo cursors (batch-size documents per round trip) and written
+ * one at a time with a streaming JsonGenerator, so memory does not grow with the course.
+ * The end line tells a reader that the archive is complete.
+ */
+@Service
+public class CourseExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseExportService.class);
+
+    public static final int ARCHIVE_VERSION = 1;
+    public static final String ARCHIVE = "archive";
+    public static final String COURSE = "course";
+    public static final String DISCUSSION = "discussion";
+    public static final String POST = "post";
+    public static final String ENROLLMENT = "enrollment";
+    public static final String END = "end";
+
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectWriter writer;
+    private final int batchSize;
+    private final Semaphore exports;
+    private final MeterRegistry meterRegistry;
+    private final Timer duration;
+    private final Counter bytes;
+
+    @Autowired
+    public CourseExportService(
+            MongoTemplate mongoTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${courses.export.batch-size:500}") int batchSize,
+            @Value("${courses.export.max-concurrent:2}") int maxConcurrent) {
+        this.mongoTemplate = mongoTemplate;
+        // The generator is flushed by the buffered stream, not after every document
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.batchSize = batchSize;
+        this.exports = new Semaphore(maxConcurrent);
+        this.meterRegistry = meterRegistry;
+        this.duration = Timer.builder("courses.export.duration")
+                .description("Time to stream one course archive")
+                .register(meterRegistry);
+        this.bytes = Counter.builder("courses.export.bytes")
+                .description("Bytes written by course exports (after compression)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("courses.export.active", exports, s -> maxConcurrent - s.availablePermits())
+                .description("Course exports in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks that the course exists and reserves an export slot; the returned body streams
+     * the archive (gzip-compressed if requested) and releases the slot when it is done.
+     *
+     * @throws TooManyRequestsException if courses.export.max-concurrent exports are running
+     */
+    public StreamingResponseBody export(String courseId, boolean gzip) {
+        Course course = mongoTemplate.findById(courseId, Course.class);
+        if (course == null) {
+            throw new RuntimeException("Course not found with id: " + courseId);
+        }
+        if (!exports.tryAcquire()) {
+            throw new TooManyRequestsException("Too many course exports in progress", 30);
+        }
+        return output -> {
+            try {
+                writeArchive(course, output, gzip);
+            } finally {
+                exports.release();
+            }
+        };
+    }
+
+    private void writeArchive(Course course, OutputStream output, boolean gzip) throws IOException {
+        long started = System.nanoTime();
+        CountingOutputStream counted = new CountingOutputStream(output);
+        OutputStream target = gzip
+                ? new GZIPOutputStream(counted, OUTPUT_BUFFER_BYTES)
+                : new BufferedOutputStream(counted, OUTPUT_BUFFER_BYTES);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (JsonGenerator generator = writer.getFactory().createGenerator(target)) {
+            // Records are separated by the newlines written below, not Jackson's default space
+            generator.setRootValueSeparator(null);
+            generator.writeStartObject();
+            generator.writeStringField("type", ARCHIVE);
+            generator.writeNumberField("version", ARCHIVE_VERSION);
+            generator.writeStringField("courseId", course.getId());
+            generator.writeFieldName("exportedAt");
+            writer.writeValue(generator, LocalDateTime.now());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+
+            write(generator, COURSE, course, counts);
+
+            // Discussions oldest first, each followed by its posts ({ discussionId, createdAt, _id } index)
+            Query discussions = new Query(where("courseId").is(course.getId()))
+                    .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+                    .cursorBatchSize(batchSize);
+            try (Stream<Discussion> stream = mongoTemplate.stream(discussions, Discussion.class)) {
+                for (Iterator<Discussion> it = stream.iterator(); it.hasNext(); ) {
+                    Discussion discussion = it.next();
+                    write(generator, DISCUSSION, discussion, counts);
+
+                    Query posts = new Query(where("discussionId").is(discussion.getId()))
+                            .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+                            .cursorBatchSize(batchSize);
+                    try (Stream<Post> postStream = mongoTemplate.stream(posts, Post.class)) {
+                        for (Iterator<Post> postIt = postStream.iterator(); postIt.hasNext(); ) {
+                            write(generator, POST, postIt.next(), counts);
+                        }
+                    }
+                }
+            }
+
+            Query enrollments = new Query(where("courseId").is(course.getId()))
+                    .with(Sort.by(Sort.Direction.ASC, "userId"))
+                    .cursorBatchSize(batchSize);
+            try (Stream<CourseEnrollment> stream = mongoTemplate.stream(enrollments, CourseEnrollment.class)) {
+                for (Iterator<CourseEnrollment> it = stream.iterator(); it.hasNext(); ) {
+                    write(generator, ENROLLMENT, it.next(), counts);
+                }
+            }
+
+            generator.writeStartObject();
+            generator.writeStringField("type", END);
+            generator.writeNumberField("discussions", counts.getOrDefault(DISCUSSION, 0L));
+            generator.writeNumberField("posts", counts.getOrDefault(POST, 0L));
+            generator.writeNumberField("enrollments", counts.getOrDefault(ENROLLMENT, 0L));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException | RuntimeException e) {
+            // Usually the client went away; the cursors are closed by the try blocks
+            log.warn("Export of course {} stopped after {} bytes: {}", course.getId(), counted.count, e.getMessage());
+            throw e;
+        } finally {
+            long nanos = System.nanoTime() - started;
+            duration.record(nanos, TimeUnit.NANOSECONDS);
+            bytes.increment(counted.count);
+            counts.forEach((type, count) -> Counter.builder("courses.export.documents")
+                    .description("Documents written by course exports")
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .increment(count));
+        }
+
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        long documents = counts.values().stream().mapToLong(Long::longValue).sum();
+        log.info("Exported course {}: {} documents, {} bytes in {} ms ({} documents/s)",
+                course.getId(), documents, counted.count, millis, documents * 1000 / millis);
+    }
+
+    private void write(JsonGenerator generator, String type, Object document, Map<String, Long> counts) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", type);
+        generator.writeFieldName("data");
+        writer.writeValue(generator, document);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        counts.merge(type, 1L, Long::sum);
+    }
+
+    // Bytes that actually reach the response (after compression)
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
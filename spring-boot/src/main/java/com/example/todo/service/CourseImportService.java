@@ -0,0 +1,385 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.CourseImportResult;
+import com.example.todo.exception.TooManyRequestsException;
+import com.example.todo.model.Course;
+import com.example.todo.model.CourseEnrollment;
+import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports a course archive written by CourseExportService (NDJSON, optionally gzip) as a
+ * new course: every document gets a new id and references are remapped.
+ *
+ * Two threads work at the same time. The request thread parses the archive one record
+ * at a time with a streaming JsonParser and hands batch-size documents per collection
+ * to a bounded queue; a writer thread takes the batches and writes each with one
+ * unordered bulk insert. When Mongo is slower than the upload, the full queue makes the
+ * parser wait, so memory stays at queue-size batches plus the old -> new discussion ids.
+ *
+ * The course document is inserted last, so the course only appears once its content is
+ * complete. If the archive is invalid or incomplete, or a write fails, what was written
+ * is removed by the background course deletion.
+ */
+@Service
+public class CourseImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseImportService.class);
+
+    private static final int INPUT_BUFFER_BYTES = 64 * 1024;
+
+    private static final Map<String, Class<?>> RECORD_TYPES = Map.of(
+            CourseExportService.COURSE, Course.class,
+            CourseExportService.DISCUSSION, Discussion.class,
+            CourseExportService.POST, Post.class,
+            CourseExportService.ENROLLMENT, CourseEnrollment.class);
+
+    private record Batch(Class<?> entity, List<Object> documents) {
+    }
+
+    // Tells the writer that no more batches follow
+    private static final Batch END_OF_INPUT = new Batch(null, List.of());
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseService courseService;
+    private final CourseDeletionService courseDeletionService;
+    private final CourseStatsService courseStatsService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int queueSize;
+    private final Semaphore imports;
+    private final ExecutorService writers = Executors.newCachedThreadPool(
+            new CustomizableThreadFactory("course-import-"));
+
+    @Autowired
+    public CourseImportService(
+            MongoTemplate mongoTemplate,
+            CourseService courseService,
+            CourseDeletionService courseDeletionService,
+            CourseStatsService courseStatsService,
+            ObjectMapper objectMapper,
+            @Value("${courses.import.batch-size:1000}") int batchSize,
+            @Value("${courses.import.queue-size:4}") int queueSize,
+            @Value("${courses.import.max-concurrent:2}") int maxConcurrent) {
+        this.mongoTemplate = mongoTemplate;
+        this.courseService = courseService;
+        this.courseDeletionService = courseDeletionService;
+        this.courseStatsService = courseStatsService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.queueSize = queueSize;
+        this.imports = new Semaphore(maxConcurrent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * Imports the archive (gzip is detected from its first bytes) and returns the new course's id and counts.
+     *
+     * @throws TooManyRequestsException if courses.import.max-concurrent imports are running
+     * @throws RuntimeException         if the archive is invalid or incomplete; nothing is kept
+     */
+    public CourseImportResult importCourse(InputStream input) throws IOException {
+        if (!imports.tryAcquire()) {
+            throw new TooManyRequestsException("Too many course imports in progress", 30);
+        }
+        try {
+            return new Import().run(decompress(input));
+        } finally {
+            imports.release();
+        }
+    }
+
+    private static InputStream decompress(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, INPUT_BUFFER_BYTES);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        boolean gzip = first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+        return gzip ? new GZIPInputStream(buffered, INPUT_BUFFER_BYTES) : buffered;
+    }
+
+    /**
+     * State of one import: the parser side runs on the calling thread, the BulkWriter on a writer thread.
+     */
+    private final class Import {
+
+        private final long started = System.nanoTime();
+        private final String courseId = new ObjectId().toHexString();
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueSize);
+        private final BulkWriter writer = new BulkWriter(queue);
+        private Future<Void> writing;
+
+        // Old discussion id -> new id, to remap the posts that follow
+        private final Map<String, String> discussionIds = new HashMap<>();
+        private final Map<Class<?>, List<Object>> pending = new HashMap<>();
+        private final Map<String, Long> read = new HashMap<>();
+        private Course course;
+        private long records;
+        private long skipped;
+        private boolean ended;
+
+        CourseImportResult run(InputStream input) throws IOException {
+            writing = writers.submit(writer);
+            try (JsonParser parser = objectMapper.createParser(input)) {
+                while (parser.nextToken() != null) {
+                    records++;
+                    readRecord(parser);
+                }
+                if (!ended) {
+                    throw new RuntimeException("Archive is truncated (no end record)");
+                }
+                if (course == null) {
+                    throw new RuntimeException("Archive has no course record");
+                }
+                for (Map.Entry<Class<?>, List<Object>> documents : pending.entrySet()) {
+                    if (!documents.getValue().isEmpty()) {
+                        enqueue(new Batch(documents.getKey(), documents.getValue()));
+                    }
+                }
+                enqueue(END_OF_INPUT);
+                waitForWriter();
+            } catch (IOException | RuntimeException e) {
+                abort();
+                log.warn("Import of course archive failed at record {}: {}", records, e.getMessage());
+                throw new RuntimeException("Import failed at record " + records + ": " + e.getMessage(), e);
+            }
+
+            // Last, so the course is only visible with all its content (also updates caches and the search index)
+            course.setId(courseId);
+            try {
+                courseService.createCourse(course);
+            } catch (RuntimeException e) {
+                courseDeletionService.requestDeletion(courseId);
+                throw e;
+            }
+            courseStatsService.recount(courseId);
+
+            long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            long documents = writer.discussions + writer.posts + writer.enrollments + 1;
+            log.info("Imported course archive as {}: {} documents in {} ms ({} documents/s), {} skipped",
+                    courseId, documents, millis, documents * 1000 / millis, skipped + writer.rejected);
+            return new CourseImportResult(courseId, writer.discussions, writer.posts, writer.enrollments,
+                    skipped + writer.rejected, millis);
+        }
+
+        // {"type": .., "data": {..}} or a header / end record with numeric fields
+        private void readRecord(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Expected a JSON object per line");
+            }
+            String type = null;
+            Object data = null;
+            TokenBuffer dataBeforeType = null;
+            Map<String, Long> numbers = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field)) {
+                    type = parser.getValueAsString();
+                } else if ("data".equals(field) && type != null && RECORD_TYPES.containsKey(type)) {
+                    // Deserialized straight from the stream, without an intermediate tree
+                    data = objectMapper.readValue(parser, RECORD_TYPES.get(type));
+                } else if ("data".equals(field)) {
+                    dataBeforeType = new TokenBuffer(parser);
+                    dataBeforeType.copyCurrentStructure(parser);
+                } else if (value.isNumeric()) {
+                    numbers.put(field, parser.getLongValue());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (data == null && dataBeforeType != null && RECORD_TYPES.containsKey(type)) {
+                data = objectMapper.readValue(dataBeforeType.asParser(parser.getCodec()), RECORD_TYPES.get(type));
+            }
+
+            if (records == 1) {
+                if (!CourseExportService.ARCHIVE.equals(type)) {
+                    throw new RuntimeException("Not a course archive (the first line must be the archive header)");
+                }
+                long version = numbers.getOrDefault("version", 0L);
+                if (version != CourseExportService.ARCHIVE_VERSION) {
+                    throw new RuntimeException("Unsupported archive version " + version);
+                }
+                return;
+            }
+            if (ended) {
+                throw new RuntimeException("Data after the end record");
+            }
+            if (CourseExportService.END.equals(type)) {
+                for (String counted : List.of(CourseExportService.DISCUSSION, CourseExportService.POST, CourseExportService.ENROLLMENT)) {
+                    long expected = numbers.getOrDefault(counted + "s", -1L);
+                    if (expected != read.getOrDefault(counted, 0L)) {
+                        throw new RuntimeException("Archive is incomplete: expected " + expected + " " + counted
+                                + "s, found " + read.getOrDefault(counted, 0L));
+                    }
+                }
+                ended = true;
+                return;
+            }
+            if (data == null) {
+                throw new RuntimeException("Unknown record type or missing data: " + type);
+            }
+            read.merge(type, 1L, Long::sum);
+            accept(data);
+        }
+
+        private void accept(Object data) throws IOException {
+            if (data instanceof Course archived) {
+                if (course != null) {
+                    throw new RuntimeException("Archive has more than one course record");
+                }
+                course = archived;
+            } else if (data instanceof Discussion discussion) {
+                String newId = new ObjectId().toHexString();
+                discussionIds.put(discussion.getId(), newId);
+                discussion.setId(newId);
+                discussion.setCourseId(courseId);
+                add(Discussion.class, discussion);
+            } else if (data instanceof Post post) {
+                String discussionId = discussionIds.get(post.getDiscussionId());
+                if (discussionId == null) {
+                    skipped++;
+                    return;
+                }
+                post.setId(new ObjectId().toHexString());
+                post.setDiscussionId(discussionId);
+                post.setCourseId(courseId);
+                add(Post.class, post);
+            } else if (data instanceof CourseEnrollment enrollment) {
+                enrollment.setId(new ObjectId().toHexString());
+                enrollment.setCourseId(courseId);
+                add(CourseEnrollment.class, enrollment);
+            }
+        }
+
+        private void add(Class<?> entity, Object document) throws IOException {
+            List<Object> documents = pending.computeIfAbsent(entity, key -> new ArrayList<>(batchSize));
+            documents.add(document);
+            if (documents.size() == batchSize) {
+                enqueue(new Batch(entity, documents));
+                pending.put(entity, new ArrayList<>(batchSize));
+            }
+        }
+
+        // Blocks while the queue is full (back pressure), but not on a writer that has stopped
+        private void enqueue(Batch batch) throws IOException {
+            try {
+                while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    if (writing.isDone()) {
+                        waitForWriter();
+                        throw new RuntimeException("Writer stopped");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Import interrupted");
+            }
+        }
+
+        private void waitForWriter() {
+            try {
+                writing.get();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Import interrupted");
+            }
+        }
+
+        private void abort() {
+            // Let the writer finish its current bulk write and stop, then remove what it wrote
+            writer.aborted = true;
+            queue.clear();
+            queue.offer(END_OF_INPUT);
+            try {
+                writing.get();
+            } catch (ExecutionException | InterruptedException | RuntimeException ignored) {
+                // Already failing; the deletion below cleans up either way
+            }
+            courseDeletionService.requestDeletion(courseId);
+        }
+    }
+
+    // Writes each batch with one unordered bulk insert
+    private final class BulkWriter implements Callable<Void> {
+
+        private final BlockingQueue<Batch> queue;
+        private volatile boolean aborted;
+        // Read by the parser thread after the writer has finished (Future.get)
+        private long discussions;
+        private long posts;
+        private long enrollments;
+        private long rejected;
+
+        BulkWriter(BlockingQueue<Batch> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == END_OF_INPUT || aborted) {
+                    return null;
+                }
+                int inserted;
+                try {
+                    inserted = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, batch.entity())
+                            .insert(batch.documents())
+                            .execute()
+                            .getInsertedCount();
+                } catch (BulkOperationException e) {
+                    // Unordered: the other documents of the batch were still inserted
+                    inserted = e.getResult().getInsertedCount();
+                    rejected += e.getErrors().size();
+                }
+                if (batch.entity() == Discussion.class) {
+                    discussions += inserted;
+                } else if (batch.entity() == Post.class) {
+                    posts += inserted;
+                } else {
+                    enrollments += inserted;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.CourseSearchHit;
+import com.example.todo.model.Course;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory search-as-you-type index over course names and descriptions.
+ *
+ * Text is normalized (accents removed, lower case) and split into tokens. A sorted map
+ * from token to course ids answers "which tokens start with this prefix" with one
+ * subMap range, so a query never scans the courses. Every query token must prefix-match
+ * a token of the course; name matches rank above description matches and exact tokens
+ * above prefixes.
+ *
+ * CourseService keeps the index up to date on create, update and delete. Writes made by
+ * other instances are picked up by the periodic rebuild (and POST /api/courses/search/rebuild).
+ */
+@Component
+public class CourseSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Course REMOVED = new Course();
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxResults;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // One rebuild at a time: a second one would replace changesDuringRebuild of the first
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Guarded by lock
+    private Index index = new Index();
+    // Changes made while a rebuild is loading courses; replayed onto the new index (guarded by lock)
+    private Map<String, Course> changesDuringRebuild;
+
+    @Autowired
+    public CourseSearchIndex(
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${courses.search.max-results:50}") int maxResults) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxResults = maxResults;
+
+        Gauge.builder("courses.search.index.memory", this, CourseSearchIndex::estimatedBytes)
+                .description("Estimated heap used by the course search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("courses.search.index.tokens", this, s -> s.read(i -> i.postings.size()))
+                .description("Distinct tokens in the course search index")
+                .register(meterRegistry);
+        Gauge.builder("courses.search.index.courses", this, s -> s.read(i -> i.documents.size()))
+                .description("Courses in the course search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Course search index could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${courses.search.rebuild-ms:900000}", fixedDelayString = "${courses.search.rebuild-ms:900000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Course search index rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads every course. Searches keep using the current index while the courses are read;
+     * changes made in the meantime are replayed onto the new index before it replaces the old one.
+     * A rebuild requested while another is running waits for it, then reloads again.
+     *
+     * @return the number of indexed courses
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            Map<String, Course> changes = new HashMap<>();
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = changes;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index fresh = new Index();
+            try {
+                Query query = new Query();
+                query.fields().include("name").include("description");
+                try (Stream<Course> courses = mongoTemplate.stream(query, Course.class)) {
+                    courses.forEach(fresh::put);
+                }
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    if (changesDuringRebuild == changes) {
+                        changesDuringRebuild = null;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (changesDuringRebuild != changes) {
+                    // Not ours any more: changes may have been recorded elsewhere, keep the current index
+                    throw new IllegalStateException("Course search index changed by another rebuild");
+                }
+                changes.forEach((id, course) -> {
+                    if (course == REMOVED) {
+                        fresh.remove(id);
+                    } else {
+                        fresh.put(course);
+                    }
+                });
+                changesDuringRebuild = null;
+                index = fresh;
+                return fresh.documents.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public void put(Course course) {
+        lock.writeLock().lock();
+        try {
+            index.put(course);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(course.getId(), course);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String courseId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(courseId);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(courseId, REMOVED);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringRebuild != null) {
+                index.documents.keySet().forEach(id -> changesDuringRebuild.put(id, REMOVED));
+            }
+            index = new Index();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<CourseSearchHit> search(String query, int limit) {
+        return search(query, null, limit);
+    }
+
+    /**
+     * courseIds limits the results to those courses (before ranking, so up to limit of them
+     * are returned); null means all courses.
+     */
+    public List<CourseSearchHit> search(String query, Collection<String> courseIds, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String normalizedQuery = normalize(query).trim();
+        int size = Math.max(1, Math.min(limit, maxResults));
+        Set<String> allowed = courseIds == null ? null : new HashSet<>(courseIds);
+
+        return read(index -> {
+            // The longest term has the fewest matching tokens; the other terms are checked per course
+            String anchor = terms.stream().max(Comparator.comparingInt(String::length)).get();
+            Set<String> candidates = new HashSet<>();
+            for (Set<String> ids : index.withPrefix(anchor).values()) {
+                candidates.addAll(ids);
+            }
+
+            List<CourseSearchHit> hits = new ArrayList<>();
+            for (String id : candidates) {
+                if (allowed != null && !allowed.contains(id)) {
+                    continue;
+                }
+                Document document = index.documents.get(id);
+                int score = document.score(terms, normalizedQuery);
+                if (score > 0) {
+                    hits.add(new CourseSearchHit(id, document.name, score));
+                }
+            }
+            hits.sort(Comparator.comparingInt(CourseSearchHit::getScore).reversed()
+                    .thenComparing(hit -> hit.getName() == null ? "" : hit.getName(), String.CASE_INSENSITIVE_ORDER));
+            return hits.size() > size ? new ArrayList<>(hits.subList(0, size)) : hits;
+        });
+    }
+
+    /**
+     * Rough heap estimate: strings, map entries and set entries of the token map and documents.
+     */
+    public long estimatedBytes() {
+        return read(index -> {
+            long bytes = 0;
+            for (Map.Entry<String, Set<String>> posting : index.postings.entrySet()) {
+                // TreeMap entry + token string + HashSet with one entry per course id
+                bytes += 40 + stringBytes(posting.getKey()) + 56 + 32L * posting.getValue().size();
+            }
+            for (Document document : index.documents.values()) {
+                bytes += 32 + stringBytes(document.id) + stringBytes(document.name)
+                        + 16L * (document.nameTokens.length + document.descriptionTokens.length) + 32;
+            }
+            return bytes;
+        });
+    }
+
+    private <T> T read(Function<Index, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : NON_WORD.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    private static final class Index {
+        final TreeMap<String, Set<String>> postings = new TreeMap<>();
+        final Map<String, Document> documents = new HashMap<>();
+
+        void put(Course course) {
+            remove(course.getId());
+            Document document = new Document(course);
+            documents.put(document.id, document);
+            for (String token : document.nameTokens) {
+                postings.computeIfAbsent(token, t -> new HashSet<>()).add(document.id);
+            }
+            for (String token : document.descriptionTokens) {
+                postings.computeIfAbsent(token, t -> new HashSet<>()).add(document.id);
+            }
+        }
+
+        void remove(String id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            unlink(document.nameTokens, id);
+            unlink(document.descriptionTokens, id);
+        }
+
+        SortedMap<String, Set<String>> withPrefix(String prefix) {
+            return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        private void unlink(String[] tokens, String id) {
+            for (String token : tokens) {
+                Set<String> ids = postings.get(token);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private static final class Document {
+        final String id;
+        final String name;
+        final String normalizedName;
+        final String[] nameTokens;
+        final String[] descriptionTokens;
+
+        Document(Course course) {
+            this.id = course.getId();
+            this.name = course.getName();
+            this.normalizedName = normalize(course.getName());
+            this.nameTokens = tokenize(course.getName()).toArray(String[]::new);
+            this.descriptionTokens = tokenize(course.getDescription()).toArray(String[]::new);
+        }
+
+        // 0 if some term matches nothing; otherwise higher for name and exact-token matches
+        int score(List<String> terms, String normalizedQuery) {
+            int score = 0;
+            for (String term : terms) {
+                int best = Math.max(match(nameTokens, term, 4), match(descriptionTokens, term, 2));
+                if (best == 0) {
+                    return 0;
+                }
+                score += best;
+            }
+            if (normalizedName.startsWith(normalizedQuery)) {
+                score += 2;
+            }
+            return score;
+        }
+
+        // exact token: weight, prefix of a token: weight - 1
+        private static int match(String[] tokens, String term, int weight) {
+            int best = 0;
+            for (String token : tokens) {
+                if (token.equals(term)) {
+                    return weight;
+                }
+                if (token.startsWith(term)) {
+                    best = weight - 1;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -1,58 +1,200 @@
 package com.example.todo.service;
 
+import com.example.todo.config.CacheConfig;
+import com.example.todo.dto.CourseSearchHit;
+import com.example.todo.dto.CursorPage;
+import com.example.todo.dto.PatchCourseRequest;
+import com.example.todo.exception.PreconditionFailedException;
 import com.example.todo.model.Course;
+import com.example.todo.model.CourseDeletion;
 import com.example.todo.repository.CourseRepository;
+import com.example.todo.util.CursorCodec;
+import com.example.todo.util.ETags;
+import com.example.todo.util.Versions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class CourseService {
 
     private final CourseRepository courseRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CourseDeletionService courseDeletionService;
+    private final CourseSearchIndex courseSearchIndex;
+    private final int listMaxSize;
+    private final int pageMaxSize;
 
     @Autowired
-    public CourseService(CourseRepository courseRepository) {
+    public CourseService(
+            CourseRepository courseRepository,
+            MongoTemplate mongoTemplate,
+            CourseDeletionService courseDeletionService,
+            CourseSearchIndex courseSearchIndex,
+            @Value("${courses.list.max-size:1000}") int listMaxSize,
+            @Value("${courses.page.max-size:100}") int pageMaxSize) {
         this.courseRepository = courseRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.courseDeletionService = courseDeletionService;
+        this.courseSearchIndex = courseSearchIndex;
+        this.listMaxSize = listMaxSize;
+        this.pageMaxSize = pageMaxSize;
     }
 
+    /**
+     * Unpaginated list, capped at courses.list.max-size items (ordered by _id).
+     * Use getCoursesPage for anything that can grow.
+     */
+    @Cacheable(cacheNames = CacheConfig.COURSE_LIST, key = "'all'", sync = true)
     public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+        return getCoursesPage(null, listMaxSize, listMaxSize).getItems();
+    }
+
+    public CursorPage<Course> getCoursesPage(String cursor, int limit) {
+        return getCoursesPage(cursor, limit, pageMaxSize);
+    }
+
+    private CursorPage<Course> getCoursesPage(String cursor, int limit, int maxSize) {
+        int size = Math.max(1, Math.min(limit, maxSize));
+        // Fetch one extra document to know whether another page exists
+        Pageable pageable = PageRequest.of(0, size + 1, Sort.by(Sort.Direction.ASC, "id"));
+
+        List<Course> courses = cursor == null || cursor.isEmpty()
+                ? courseRepository.findAllBy(pageable)
+                : courseRepository.findByIdGreaterThan(CursorCodec.decode(cursor), pageable);
+
+        boolean hasMore = courses.size() > size;
+        List<Course> items = hasMore ? courses.subList(0, size) : courses;
+        String nextCursor = hasMore ? CursorCodec.encode(items.get(items.size() - 1).getId()) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    // Courses are cached, so their ETags are computed from the cached values (no version query)
+    public static String etag(Course course) {
+        return ETags.of(course.getId(), course.getUpdatedAt(), course.getVersion());
+    }
+
+    public static String etag(List<Course> courses) {
+        return ETags.ofList(courses, Course::getId, Course::getUpdatedAt);
     }
 
+    @Cacheable(cacheNames = CacheConfig.COURSES, key = "#id", sync = true)
     public Optional<Course> getCourseById(String id) {
         return courseRepository.findById(id);
     }
 
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.COURSES, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true))
     public Course createCourse(Course course) {
         course.setCreatedAt(LocalDateTime.now());
         course.setUpdatedAt(LocalDateTime.now());
-        return courseRepository.save(course);
+        course.setVersion(0L);
+        Course saved = courseRepository.save(course);
+        courseSearchIndex.put(saved);
+        return saved;
     }
 
-    public Course updateCourse(String id, Course courseDetails) {
-        Course course = courseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Course not found with id: " + id));
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.COURSES, key = "#id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true))
+    public Course updateCourse(String id, Course courseDetails, Long expectedVersion) {
+        // PUT replaces every editable field
+        return applyUpdate(id, new Update()
+                .set("name", courseDetails.getName())
+                .set("description", courseDetails.getDescription()), expectedVersion);
+    }
 
-        course.setName(courseDetails.getName());
-        course.setDescription(courseDetails.getDescription());
-        course.setUpdatedAt(LocalDateTime.now());
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.COURSES, key = "#id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true))
+    public Course patchCourse(String id, PatchCourseRequest patch, Long expectedVersion) {
+        Update update = new Update();
+        if (patch.getName() != null) {
+            update.set("name", patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            update.set("description", patch.getDescription());
+        }
+        return applyUpdate(id, update, expectedVersion);
+    }
 
-        return courseRepository.save(course);
+    /**
+     * One findAndModify: only the given fields are written, the version is incremented,
+     * and with an expected version the update only applies if nobody changed the course since.
+     */
+    private Course applyUpdate(String id, Update update, Long expectedVersion) {
+        Query query = new Query(where("_id").is(id));
+        if (expectedVersion != null) {
+            query.addCriteria(Versions.is(expectedVersion));
+        }
+        update.set("updatedAt", LocalDateTime.now()).inc(Versions.FIELD, 1);
+
+        Course updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Course.class);
+        if (updated == null) {
+            // Only a failed update pays for a second query, to tell 404 from 412
+            if (!courseRepository.existsById(id)) {
+                throw new RuntimeException("Course not found with id: " + id);
+            }
+            throw new PreconditionFailedException("Course has been modified since version " + expectedVersion);
+        }
+        courseSearchIndex.put(updated);
+        return updated;
     }
 
-    public void deleteCourse(String id) {
+    /**
+     * Removes the course at once; its discussions, posts and enrollments are deleted in the background.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true)})
+    public CourseDeletion deleteCourse(String id) {
         if (!courseRepository.existsById(id)) {
             throw new RuntimeException("Course not found with id: " + id);
         }
-        courseRepository.deleteById(id);
+        CourseDeletion deletion = courseDeletionService.requestDeletion(id);
+        courseSearchIndex.remove(id);
+        return deletion;
+    }
+
+    @CacheEvict(cacheNames = {CacheConfig.COURSES, CacheConfig.COURSE_LIST}, allEntries = true)
+    public long deleteAllCourses() {
+        long courses = courseDeletionService.requestDeletionOfAllCourses();
+        courseSearchIndex.clear();
+        return courses;
+    }
+
+    /**
+     * Search-as-you-type over name and description, answered from the in-memory index.
+     */
+    /**
+     * courseIds limits the results to those courses; null means all courses.
+     */
+    public List<CourseSearchHit> searchCourses(String query, Collection<String> courseIds, int limit) {
+        return courseSearchIndex.search(query, courseIds, limit);
     }
 
-    public void deleteAllCourses() {
-        courseRepository.deleteAll();
+    public int rebuildSearchIndex() {
+        return courseSearchIndex.rebuild();
     }
 }
 
@@ -0,0 +1,229 @@
+package com.example.todo.service;
+
+import com.example.todo.model.Course;
+import com.example.todo.model.CourseEnrollment;
+import com.example.todo.model.CourseStats;
+import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Maintains the course_stats counters.
+ *
+ * Every write is a single upserted $inc (plus $max on lastActivityAt), so concurrent
+ * writers never lose an increment. The counters are updated after the enrollment,
+ * discussion or post itself has been written; if that second write fails, or something
+ * changes the collections directly, the reconciler recounts every course in batches
+ * and rewrites the counters that drifted.
+ */
+@Service
+public class CourseStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseStatsService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public CourseStatsService(
+            MongoTemplate mongoTemplate,
+            @Value("${courses.stats.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void enrollmentsAdded(String courseId, long count, LocalDateTime at) {
+        increment(courseId, "enrollments", count, at);
+    }
+
+    public void discussionAdded(String courseId, LocalDateTime at) {
+        increment(courseId, "discussions", 1, at);
+    }
+
+    public void discussionRemoved(String courseId) {
+        increment(courseId, "discussions", -1, null);
+    }
+
+    public void postAdded(String courseId, LocalDateTime at) {
+        increment(courseId, "posts", 1, at);
+    }
+
+    public void postRemoved(String courseId) {
+        increment(courseId, "posts", -1, null);
+    }
+
+    /**
+     * Recounts one course now, e.g. after its documents were written in bulk without the increments.
+     */
+    public void recount(String courseId) {
+        try {
+            reconcile(List.of(courseId));
+        } catch (RuntimeException e) {
+            // The scheduled reconciliation catches up
+            log.warn("Could not recount course {}: {}", courseId, e.getMessage());
+        }
+    }
+
+    public Optional<CourseStats> getStats(String courseId) {
+        return Optional.ofNullable(mongoTemplate.findById(courseId, CourseStats.class));
+    }
+
+    /**
+     * One read of course_stats, in course id order or most recently active first (both indexed).
+     */
+    public List<CourseStats> getAllStats(boolean byLastActivity, int limit) {
+        Sort sort = byLastActivity
+                ? Sort.by(Sort.Direction.DESC, "lastActivityAt")
+                : Sort.by(Sort.Direction.ASC, "_id");
+        return mongoTemplate.find(new Query().with(sort).limit(Math.max(1, Math.min(limit, 1000))),
+                CourseStats.class);
+    }
+
+    /**
+     * Recounts every course, batchSize courses at a time (one grouped aggregation per
+     * collection and batch), and rewrites the counters that differ.
+     *
+     * @return the number of courses whose counters were repaired
+     */
+    @Scheduled(initialDelayString = "${courses.stats.reconcile-ms:3600000}", fixedDelayString = "${courses.stats.reconcile-ms:3600000}")
+    public long reconcile() {
+        long repaired = 0;
+        String after = null;
+        try {
+            while (true) {
+                Query batch = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+                if (after != null) {
+                    batch.addCriteria(where("_id").gt(after));
+                }
+                batch.fields().include("_id");
+                List<String> courseIds = mongoTemplate.find(batch, Course.class).stream()
+                        .map(Course::getId)
+                        .toList();
+                if (courseIds.isEmpty()) {
+                    break;
+                }
+                repaired += reconcile(courseIds);
+                after = courseIds.get(courseIds.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Course stats reconciliation stopped after course {}: {}", after, e.getMessage());
+        }
+        if (repaired > 0) {
+            log.info("Repaired activity counters of {} courses", repaired);
+        }
+        return repaired;
+    }
+
+    private long reconcile(List<String> courseIds) {
+        Map<String, Document> enrollments = countByCourse(CourseEnrollment.class, courseIds, "enrolledAt");
+        Map<String, Document> discussions = countByCourse(Discussion.class, courseIds, "createdAt");
+        Map<String, Document> posts = countByCourse(Post.class, courseIds, "createdAt");
+        Map<String, CourseStats> current = mongoTemplate.find(query(where("_id").in(courseIds)), CourseStats.class)
+                .stream()
+                .collect(Collectors.toMap(CourseStats::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations writes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseStats.class);
+        long repaired = 0;
+        for (String courseId : courseIds) {
+            CourseStats actual = new CourseStats(courseId);
+            actual.setEnrollments(count(enrollments.get(courseId)));
+            actual.setDiscussions(count(discussions.get(courseId)));
+            actual.setPosts(count(posts.get(courseId)));
+            actual.setLastActivityAt(latest(enrollments.get(courseId), discussions.get(courseId), posts.get(courseId)));
+            actual.setReconciledAt(now);
+
+            CourseStats stored = current.get(courseId);
+            if (stored != null && stored.getEnrollments() == actual.getEnrollments()
+                    && stored.getDiscussions() == actual.getDiscussions()
+                    && stored.getPosts() == actual.getPosts()
+                    && Objects.equals(stored.getLastActivityAt(), actual.getLastActivityAt())) {
+                continue;
+            }
+            // A counter bumped between the count and this write is overwritten; the next run fixes it
+            writes.upsert(query(where("_id").is(courseId)), new Update()
+                    .set("enrollments", actual.getEnrollments())
+                    .set("discussions", actual.getDiscussions())
+                    .set("posts", actual.getPosts())
+                    .set("lastActivityAt", actual.getLastActivityAt())
+                    .set("reconciledAt", now));
+            repaired++;
+        }
+        if (repaired > 0) {
+            writes.execute();
+        }
+        return repaired;
+    }
+
+    // { _id: courseId, count, last } per course, using the courseId index of each collection
+    private Map<String, Document> countByCourse(Class<?> entityClass, List<String> courseIds, String dateField) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(where("courseId").in(courseIds)),
+                group("courseId").count().as("count").max(dateField).as("last"));
+        Map<String, Document> counts = new HashMap<>();
+        for (Document document : mongoTemplate.aggregate(aggregation, entityClass, Document.class)) {
+            counts.put(String.valueOf(document.get("_id")), document);
+        }
+        return counts;
+    }
+
+    private static long count(Document counts) {
+        return counts == null ? 0 : ((Number) counts.get("count")).longValue();
+    }
+
+    private static LocalDateTime latest(Document... counts) {
+        Date latest = null;
+        for (Document document : counts) {
+            Date last = document == null ? null : document.getDate("last");
+            if (last != null && (latest == null || last.after(latest))) {
+                latest = last;
+            }
+        }
+        // Same conversion Spring Data uses when it reads LocalDateTime fields
+        return latest == null ? null : LocalDateTime.ofInstant(latest.toInstant(), ZoneId.systemDefault());
+    }
+
+    private void increment(String courseId, String counter, long delta, LocalDateTime at) {
+        if (courseId == null || delta == 0) {
+            return;
+        }
+        Update update = new Update().inc(counter, delta);
+        if (at != null) {
+            update.max("lastActivityAt", at);
+        }
+        try {
+            mongoTemplate.upsert(query(where("_id").is(courseId)), update, CourseStats.class);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; the reconciler repairs the counter
+            log.warn("Could not update {} of course {}: {}", counter, courseId, e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,37 @@
 package com.example.todo.service;
 
+import com.example.todo.dto.CursorPage;
+import com.example.todo.dto.DiscussionThread;
+import com.example.todo.dto.PatchDiscussionRequest;
+import com.example.todo.exception.PreconditionFailedException;
 import com.example.todo.model.Discussion;
+import com.example.todo.model.Post;
+import com.example.todo.model.User;
 import com.example.todo.repository.DiscussionRepository;
+import com.example.todo.util.CursorCodec;
+import com.example.todo.util.ETags;
+import com.example.todo.util.Versions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 /**
  * Service for handling course discussion operations with complex aggregations
@@ -17,45 +41,267 @@ public class DiscussionService {
     
     @Autowired
     private DiscussionRepository discussionRepository;
-    
-    public List<Discussion> getAllDiscussions() {
-        return discussionRepository.findAll();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CourseStatsService courseStatsService;
+
+    @Value("${discussions.list.max-size:1000}")
+    private int listMaxSize;
+
+    @Value("${discussions.page.max-size:100}")
+    private int pageMaxSize;
+
+    @Value("${posts.page.max-size:100}")
+    private int postsPageMaxSize;
+
+    /**
+     * Most recent discussions first, capped at discussions.list.max-size.
+     * courseIds limits the list to those courses; null means all courses.
+     */
+    public List<Discussion> getRecentDiscussions(Collection<String> courseIds) {
+        return getDiscussionsPage(courseIds, null, listMaxSize, listMaxSize).getItems();
+    }
+
+    public CursorPage<Discussion> getDiscussionsPage(Collection<String> courseIds, String cursor, int limit) {
+        return getDiscussionsPage(courseIds, cursor, limit, pageMaxSize);
+    }
+
+    /**
+     * Newest first by creation. With course ids the query walks the { courseId, createdAt, _id }
+     * index once per course and merges the ranges, so only one page of discussions is read
+     * however many courses and discussions there are.
+     */
+    private CursorPage<Discussion> getDiscussionsPage(Collection<String> courseIds, String cursor, int limit, int maxSize) {
+        if (courseIds != null && courseIds.isEmpty()) {
+            return new CursorPage<>(List.of(), null, false);
+        }
+        Criteria criteria = courseIds == null ? new Criteria() : where("courseId").in(courseIds);
+        return keysetPage(criteria, "createdAt", Discussion::getCreatedAt, cursor, Math.max(1, Math.min(limit, maxSize)));
+    }
+
+    /**
+     * Discussions of a course, most recently active (latest post) first. Reads one page from
+     * the { courseId, lastPostAt, _id } index.
+     */
+    public CursorPage<Discussion> getActiveDiscussionsPage(String courseId, String cursor, int limit) {
+        return keysetPage(where("courseId").is(courseId), "lastPostAt", Discussion::getLastPostAt, cursor,
+                Math.max(1, Math.min(limit, pageMaxSize)));
+    }
+
+    // Keyset pagination over (sortField, _id) descending
+    private CursorPage<Discussion> keysetPage(Criteria criteria, String sortField,
+                                              Function<Discussion, LocalDateTime> sortValue, String cursor, int size) {
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorCodec.Keyset after = CursorCodec.decodeKeyset(cursor);
+            // The outer bound keeps the $or from being planned branch by branch (plus an in-memory sort)
+            criteria.and(sortField).lte(after.sortValue()).orOperator(
+                    where(sortField).lt(after.sortValue()),
+                    where(sortField).is(after.sortValue()).and("_id").lt(after.id()));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, sortField, "_id"))
+                // One extra document tells whether another page exists
+                .limit(size + 1);
+
+        List<Discussion> discussions = mongoTemplate.find(query, Discussion.class);
+        boolean hasMore = discussions.size() > size;
+        List<Discussion> items = hasMore ? discussions.subList(0, size) : discussions;
+        Discussion last = hasMore ? items.get(items.size() - 1) : null;
+        String nextCursor = last != null ? CursorCodec.encode(sortValue.apply(last), last.getId()) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
     }
     
     public Optional<Discussion> getDiscussionById(String id) {
         return discussionRepository.findById(id);
     }
+
+    /**
+     * Course of a discussion, for enrollment checks (only courseId is read).
+     */
+    public Optional<String> getDiscussionCourseId(String id) {
+        Query query = new Query(where("_id").is(id));
+        query.fields().include("courseId");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Discussion.class)).map(Discussion::getCourseId);
+    }
     
     public List<Discussion> getDiscussionsByCourseId(String courseId) {
         return discussionRepository.findByCourseId(courseId);
     }
 
-    public List<Discussion> getDiscussionsByCourseIds(List<String> courseIds) {
-        return discussionRepository.findByCourseIdIn(courseIds);
+    /**
+     * A discussion with one page of its posts (oldest first) and the names of the discussion's
+     * and the posts' authors, in a single aggregation:
+     *
+     *   $match  { _id }
+     *   $lookup posts:  $match { discussionId } -> $sort { createdAt, _id } -> $limit
+     *                   -> $lookup users (name only) for each post's author
+     *   $lookup users (name only) for the discussion's creator
+     *
+     * The posts sub-pipeline reads the { discussionId, createdAt } index; pass the returned
+     * cursor to continue with the next page. Empty if the discussion does not exist.
+     */
+    public Optional<DiscussionThread> getDiscussionThread(String id, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, postsPageMaxSize));
+        if (!ObjectId.isValid(id)) {
+            return Optional.empty();
+        }
+
+        Document postsMatch = new Document("discussionId", id);
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorCodec.Keyset after = CursorCodec.decodeKeyset(cursor);
+            Object createdAt = mongoTemplate.getConverter().convertToMongoType(after.sortValue());
+            postsMatch.append("createdAt", new Document("$gte", createdAt)).append("$or", List.of(
+                    new Document("createdAt", new Document("$gt", createdAt)),
+                    new Document("createdAt", createdAt).append("_id", new Document("$gt", new ObjectId(after.id())))));
+        }
+        List<Document> postsPipeline = List.of(
+                new Document("$match", postsMatch),
+                new Document("$sort", new Document("createdAt", 1).append("_id", 1)),
+                // One extra post tells whether another page exists
+                new Document("$limit", size + 1),
+                authorLookup("userId"),
+                new Document("$project", new Document("userId", 1)
+                        .append("content", 1)
+                        .append("createdAt", 1)
+                        .append("updatedAt", 1)
+                        .append(Versions.FIELD, 1)
+                        .append("authorName", new Document("$arrayElemAt", List.of("$author.name", 0)))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(where("_id").is(new ObjectId(id))),
+                Aggregation.stage(new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(Post.class))
+                        .append("pipeline", postsPipeline)
+                        .append("as", "posts"))),
+                Aggregation.stage(authorLookup("createdBy")));
+
+        Document result = mongoTemplate.aggregate(aggregation,
+                mongoTemplate.getCollectionName(Discussion.class), Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return Optional.empty();
+        }
+
+        Discussion discussion = mongoTemplate.getConverter().read(Discussion.class, result);
+        List<Document> postDocuments = result.getList("posts", Document.class, List.of());
+        boolean hasMore = postDocuments.size() > size;
+        List<DiscussionThread.ThreadPost> posts = new ArrayList<>();
+        for (Document postDocument : hasMore ? postDocuments.subList(0, size) : postDocuments) {
+            Post post = mongoTemplate.getConverter().read(Post.class, postDocument);
+            DiscussionThread.ThreadPost threadPost = new DiscussionThread.ThreadPost();
+            threadPost.setId(post.getId());
+            threadPost.setUserId(post.getUserId());
+            threadPost.setAuthorName(postDocument.getString("authorName"));
+            threadPost.setContent(post.getContent());
+            threadPost.setCreatedAt(post.getCreatedAt());
+            threadPost.setUpdatedAt(post.getUpdatedAt());
+            threadPost.setVersion(post.getVersion());
+            posts.add(threadPost);
+        }
+        DiscussionThread.ThreadPost last = hasMore ? posts.get(posts.size() - 1) : null;
+        String nextCursor = last != null ? CursorCodec.encode(last.getCreatedAt(), last.getId()) : null;
+
+        List<Document> author = result.getList("author", Document.class, List.of());
+        String authorName = author.isEmpty() ? null : author.get(0).getString("name");
+        return Optional.of(new DiscussionThread(discussion, authorName, posts, nextCursor, hasMore));
+    }
+
+    // $lookup of { name: "firstName lastName" } from users; user ids are stored as strings, user _ids as ObjectIds
+    private Document authorLookup(String userIdField) {
+        Document toObjectId = new Document("$convert", new Document("input", "$" + userIdField)
+                .append("to", "objectId")
+                .append("onError", null)
+                .append("onNull", null));
+        Document fullName = new Document("$trim", new Document("input", new Document("$concat", List.of(
+                new Document("$ifNull", List.of("$firstName", "")),
+                " ",
+                new Document("$ifNull", List.of("$lastName", ""))))));
+        return new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(User.class))
+                .append("let", new Document("authorId", toObjectId))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$eq", List.of("$_id", "$$authorId")))),
+                        new Document("$project", new Document("_id", 0).append("name", fullName))))
+                .append("as", "author"));
     }
-    
+
+    /**
+     * ETag of one discussion from the { _id, updatedAt } projection; empty if it does not exist.
+     */
+    public Optional<String> getDiscussionETag(String id) {
+        return discussionRepository.findVersionById(id).map(DiscussionService::etag);
+    }
+
+    public String getCourseDiscussionsETag(String courseId) {
+        return ETags.ofList(discussionRepository.findVersionsByCourseId(courseId),
+                Discussion::getId, Discussion::getUpdatedAt);
+    }
+
+    public static String etag(Discussion discussion) {
+        return ETags.of(discussion.getId(), discussion.getUpdatedAt(), discussion.getVersion());
+    }
+
+    public static String etag(List<Discussion> discussions) {
+        return ETags.ofList(discussions, Discussion::getId, Discussion::getUpdatedAt);
+    }
+
     public Discussion createDiscussion(Discussion discussion, String userId) {
         discussion.setCreatedBy(userId);
         discussion.setCreatedAt(LocalDateTime.now());
         discussion.setUpdatedAt(LocalDateTime.now());
-        return discussionRepository.save(discussion);
+        discussion.setVersion(0L);
+        discussion.setPostCount(0L);
+        // Ranks new discussions among the active ones until the first post
+        discussion.setLastPostAt(discussion.getCreatedAt());
+        discussion.setLastPostAuthor(null);
+        Discussion saved = discussionRepository.save(discussion);
+        courseStatsService.discussionAdded(saved.getCourseId(), saved.getCreatedAt());
+        return saved;
     }
     
-    public Discussion updateDiscussion(String id, Discussion discussionDetails, String userId) {
-        Discussion discussion = discussionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Discussion not found with id: " + id));
+    public Discussion updateDiscussion(String id, Discussion discussionDetails, String userId, Long expectedVersion) {
+        // PUT replaces every editable field (moving a discussion to another course is left to the stats reconciler)
+        return applyUpdate(id, new Update()
+                .set("courseId", discussionDetails.getCourseId())
+                .set("title", discussionDetails.getTitle())
+                .set("description", discussionDetails.getDescription()), userId, expectedVersion);
+    }
 
-        // Check ownership (only creator can update)
-        if (discussion.getCreatedBy() != null && !discussion.getCreatedBy().equals(userId)) {
-            throw new RuntimeException("You can only update your own discussions");
+    public Discussion patchDiscussion(String id, PatchDiscussionRequest patch, String userId, Long expectedVersion) {
+        Update update = new Update();
+        if (patch.getTitle() != null) {
+            update.set("title", patch.getTitle());
         }
+        if (patch.getDescription() != null) {
+            update.set("description", patch.getDescription());
+        }
+        return applyUpdate(id, update, userId, expectedVersion);
+    }
 
-        discussion.setCourseId(discussionDetails.getCourseId());
-        discussion.setTitle(discussionDetails.getTitle());
-        discussion.setDescription(discussionDetails.getDescription());
-        discussion.setUpdatedAt(LocalDateTime.now());
+    /**
+     * One findAndModify with the ownership check (only the creator can update) and the
+     * expected version in the filter, so there is no window between the check and the write.
+     */
+    private Discussion applyUpdate(String id, Update update, String userId, Long expectedVersion) {
+        // Discussions without a creator can be edited by anyone
+        Query query = new Query(where("_id").is(id).and("createdBy").in(userId, null));
+        if (expectedVersion != null) {
+            query.addCriteria(Versions.is(expectedVersion));
+        }
+        update.set("updatedAt", LocalDateTime.now()).inc(Versions.FIELD, 1);
 
-        return discussionRepository.save(discussion);
+        Discussion updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Discussion.class);
+        if (updated == null) {
+            // Only a failed update pays for a second query, to report why it failed
+            Discussion current = discussionRepository.findVersionById(id)
+                    .orElseThrow(() -> new RuntimeException("Discussion not found with id: " + id));
+            if (current.getCreatedBy() != null && !current.getCreatedBy().equals(userId)) {
+                throw new RuntimeException("You can only update your own discussions");
+            }
+            throw new PreconditionFailedException("Discussion has been modified since version " + expectedVersion);
+        }
+        return updated;
     }
     
     public void deleteDiscussion(String id, String userId) {
@@ -67,6 +313,9 @@ public class DiscussionService {
             throw new RuntimeException("You can only delete your own discussions");
         }
 
-        discussionRepository.deleteById(id);
+        // Only the request that actually removed it decrements the counter
+        if (mongoTemplate.remove(new Query(where("_id").is(id)), Discussion.class).getDeletedCount() > 0) {
+            courseStatsService.discussionRemoved(discussion.getCourseId());
+        }
     }
 }
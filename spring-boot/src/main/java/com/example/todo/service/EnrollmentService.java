@@ -1,5 +1,6 @@
 package com.example.todo.service;
 
+import com.example.todo.dto.CursorPage;
 import com.example.todo.dto.EnrolledUserDto;
 import com.example.todo.model.Course;
 import com.example.todo.model.CourseEnrollment;
@@ -7,7 +8,17 @@ import com.example.todo.model.User;
 import com.example.todo.repository.CourseEnrollmentRepository;
 import com.example.todo.repository.CourseRepository;
 import com.example.todo.repository.UserRepository;
+import com.example.todo.util.CursorCodec;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -15,21 +26,35 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class EnrollmentService {
 
     private final CourseEnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final CourseStatsService courseStatsService;
+    private final MongoTemplate mongoTemplate;
+    private final int listMaxSize;
+    private final int pageMaxSize;
 
     @Autowired
     public EnrollmentService(
             CourseEnrollmentRepository enrollmentRepository,
             CourseRepository courseRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            CourseStatsService courseStatsService,
+            MongoTemplate mongoTemplate,
+            @Value("${courses.list.max-size:1000}") int listMaxSize,
+            @Value("${courses.page.max-size:100}") int pageMaxSize) {
         this.enrollmentRepository = enrollmentRepository;
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
+        this.courseStatsService = courseStatsService;
+        this.mongoTemplate = mongoTemplate;
+        this.listMaxSize = listMaxSize;
+        this.pageMaxSize = pageMaxSize;
     }
 
     public List<CourseEnrollment> enrollUsers(String courseId, List<String> userIds, String grantedBy) {
@@ -56,7 +81,16 @@ public class EnrollmentService {
             enrollment.setGrantedBy(grantedBy);
             enrollment.setEnrolledAt(LocalDateTime.now());
 
-            enrollments.add(enrollmentRepository.save(enrollment));
+            try {
+                enrollments.add(enrollmentRepository.save(enrollment));
+            } catch (DuplicateKeyException e) {
+                // Enrolled concurrently by another request (unique { courseId, userId } index)
+            }
+        }
+
+        if (!enrollments.isEmpty()) {
+            courseStatsService.enrollmentsAdded(courseId, enrollments.size(),
+                    enrollments.get(enrollments.size() - 1).getEnrolledAt());
         }
 
         return enrollments;
@@ -92,17 +126,72 @@ public class EnrollmentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Ids of the user's courses, read from the { userId, courseId } index alone (no documents, no join).
+     */
+    public List<String> getEnrolledCourseIds(String userId) {
+        Query query = new Query(where("userId").is(userId));
+        query.fields().include("courseId").exclude("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(CourseEnrollment.class))
+                .stream()
+                .map(enrollment -> enrollment.getString("courseId"))
+                .collect(Collectors.toList());
+    }
+
     public boolean isUserEnrolled(String courseId, String userId) {
         return enrollmentRepository.existsByCourseIdAndUserId(courseId, userId);
     }
 
+    /**
+     * The user's courses, capped at courses.list.max-size (ordered by course id).
+     */
     public List<Course> getEnrolledCourses(String userId) {
-        List<CourseEnrollment> enrollments = enrollmentRepository.findByUserId(userId);
-        List<String> courseIds = enrollments.stream()
-                .map(CourseEnrollment::getCourseId)
+        return getEnrolledCoursesPage(userId, null, listMaxSize, listMaxSize).getItems();
+    }
+
+    public CursorPage<Course> getEnrolledCoursesPage(String userId, String cursor, int limit) {
+        return getEnrolledCoursesPage(userId, cursor, limit, pageMaxSize);
+    }
+
+    /**
+     * One aggregation instead of loading the enrollments and then the courses: the user's
+     * enrollments are read in courseId order from the { userId, courseId } index, one page
+     * at a time, and each is joined to its course by _id.
+     */
+    private CursorPage<Course> getEnrolledCoursesPage(String userId, String cursor, int limit, int maxSize) {
+        int size = Math.max(1, Math.min(limit, maxSize));
+        Criteria criteria = where("userId").is(userId);
+        if (cursor != null && !cursor.isEmpty()) {
+            criteria = criteria.and("courseId").gt(CursorCodec.decode(cursor));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.Direction.ASC, "courseId"),
+                // One extra enrollment tells whether another page exists
+                Aggregation.limit(size + 1),
+                Aggregation.project("courseId").andExclude("_id"),
+                // courseId is stored as a string, the course _id as an ObjectId
+                Aggregation.addFields().addField("courseOid")
+                        .withValueOf(ConvertOperators.valueOf("courseId").convertTo("objectId")
+                                .onErrorReturnValueOf("courseId"))
+                        .build(),
+                Aggregation.lookup(mongoTemplate.getCollectionName(Course.class), "courseOid", "_id", "course"),
+                // Keep enrollments of deleted courses so the cursor still advances past them
+                Aggregation.unwind("course", true));
+
+        List<Document> rows = mongoTemplate.aggregate(aggregation,
+                mongoTemplate.getCollectionName(CourseEnrollment.class), Document.class).getMappedResults();
+
+        boolean hasMore = rows.size() > size;
+        List<Document> page = hasMore ? rows.subList(0, size) : rows;
+        List<Course> courses = page.stream()
+                .map(row -> row.get("course", Document.class))
+                .filter(course -> course != null)
+                .map(course -> mongoTemplate.getConverter().read(Course.class, course))
                 .collect(Collectors.toList());
-        
-        return courseRepository.findAllById(courseIds);
+        String nextCursor = hasMore ? CursorCodec.encode(page.get(page.size() - 1).getString("courseId")) : null;
+        return new CursorPage<>(courses, nextCursor, hasMore);
     }
 }
 
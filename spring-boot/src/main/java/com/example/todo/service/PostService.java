@@ -1,52 +1,186 @@
 package com.example.todo.service;
 
+import com.example.todo.dto.PostPage;
+import com.example.todo.exception.PreconditionFailedException;
+import com.example.todo.model.Discussion;
 import com.example.todo.model.Post;
 import com.example.todo.repository.PostRepository;
+import com.example.todo.util.CursorCodec;
+import com.example.todo.util.ETags;
+import com.example.todo.util.Versions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class PostService {
 
     private final PostRepository postRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CourseStatsService courseStatsService;
+    private final int pageMaxSize;
 
     @Autowired
-    public PostService(PostRepository postRepository) {
+    public PostService(PostRepository postRepository, MongoTemplate mongoTemplate,
+                       CourseStatsService courseStatsService,
+                       @Value("${posts.page.max-size:100}") int pageMaxSize) {
         this.postRepository = postRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.courseStatsService = courseStatsService;
+        this.pageMaxSize = pageMaxSize;
     }
 
     public List<Post> getPostsByDiscussionId(String discussionId) {
         return postRepository.findByDiscussionIdOrderByCreatedAtAsc(discussionId);
     }
 
+    /**
+     * A window of a discussion's posts in (createdAt, _id) order, read from the
+     * { discussionId, createdAt, _id } index in either direction:
+     *
+     *   after  = cursor: the posts following it (next page, or new posts since the last poll)
+     *   before = cursor: the posts preceding it (scrolling up)
+     *   neither:         the first posts, or the latest ones if latest is true
+     *
+     * Items are always oldest first. Cursors of DiscussionService.getDiscussionThread work as after.
+     */
+    public PostPage getPostsPage(String discussionId, String after, String before, boolean latest, int limit) {
+        if (after != null && before != null) {
+            throw new IllegalArgumentException("Pass either after or before, not both");
+        }
+        int size = Math.max(1, Math.min(limit, pageMaxSize));
+        boolean backwards = before != null || (after == null && latest);
+        Sort.Direction direction = backwards ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        Criteria criteria = where("discussionId").is(discussionId);
+        String cursor = backwards ? before : after;
+        if (cursor != null) {
+            CursorCodec.Keyset position = CursorCodec.decodeKeyset(cursor);
+            // The outer bound keeps the $or from being planned branch by branch (plus an in-memory sort)
+            criteria = backwards
+                    ? criteria.and("createdAt").lte(position.sortValue()).orOperator(
+                            where("createdAt").lt(position.sortValue()),
+                            where("createdAt").is(position.sortValue()).and("_id").lt(position.id()))
+                    : criteria.and("createdAt").gte(position.sortValue()).orOperator(
+                            where("createdAt").gt(position.sortValue()),
+                            where("createdAt").is(position.sortValue()).and("_id").gt(position.id()));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(direction, "createdAt", "_id"))
+                // One extra document tells whether more posts follow in this direction
+                .limit(size + 1);
+
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+        boolean hasMore = posts.size() > size;
+        List<Post> items = new ArrayList<>(hasMore ? posts.subList(0, size) : posts);
+        if (backwards) {
+            Collections.reverse(items);
+        }
+        if (items.isEmpty()) {
+            // e.g. no new posts yet: polling continues from the same position
+            return new PostPage(items, before, after, false);
+        }
+        Post first = items.get(0);
+        Post last = items.get(items.size() - 1);
+        return new PostPage(items,
+                CursorCodec.encode(first.getCreatedAt(), first.getId()),
+                CursorCodec.encode(last.getCreatedAt(), last.getId()),
+                hasMore);
+    }
+
     public Optional<Post> getPostById(String id) {
         return postRepository.findById(id);
     }
 
+    /**
+     * ETag of one post from the { _id, updatedAt } projection; empty if it does not exist.
+     */
+    public Optional<String> getPostETag(String id) {
+        return postRepository.findVersionById(id).map(PostService::etag);
+    }
+
+    public String getDiscussionPostsETag(String discussionId) {
+        return ETags.ofList(postRepository.findVersionsByDiscussionId(discussionId), Post::getId, Post::getUpdatedAt);
+    }
+
+    public static String etag(Post post) {
+        return ETags.of(post.getId(), post.getUpdatedAt(), post.getVersion());
+    }
+
+    public static String etag(List<Post> posts) {
+        return ETags.ofList(posts, Post::getId, Post::getUpdatedAt);
+    }
+
+    /**
+     * The post's course is taken from its discussion, never from the request: course stats
+     * and course deletion find posts by courseId.
+     *
+     * @throws RuntimeException if the discussion does not exist (400)
+     */
     public Post createPost(Post post, String userId) {
+        Discussion discussion = post.getDiscussionId() == null ? null : findDiscussionCourse(post.getDiscussionId());
+        if (discussion == null) {
+            throw new RuntimeException("Discussion not found with id: " + post.getDiscussionId());
+        }
+        post.setCourseId(discussion.getCourseId());
         post.setUserId(userId);
         post.setCreatedAt(LocalDateTime.now());
         post.setUpdatedAt(LocalDateTime.now());
-        return postRepository.save(post);
+        post.setVersion(0L);
+        Post saved = postRepository.save(post);
+        recordPostAdded(saved);
+        courseStatsService.postAdded(saved.getCourseId(), saved.getCreatedAt());
+        return saved;
     }
 
-    public Post updatePost(String id, Post postDetails, String userId) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Post not found with id: " + id));
+    // Only the courseId of the discussion is read
+    private Discussion findDiscussionCourse(String discussionId) {
+        Query query = new Query(where("_id").is(discussionId));
+        query.fields().include("courseId");
+        return mongoTemplate.findOne(query, Discussion.class);
+    }
 
-        // Check ownership (only creator can update)
-        if (!post.getUserId().equals(userId)) {
-            throw new RuntimeException("You can only update your own posts");
+    /**
+     * One findAndModify with the ownership check (only the creator can update) and the
+     * expected version in the filter, so there is no window between the check and the write.
+     */
+    public Post updatePost(String id, Post postDetails, String userId, Long expectedVersion) {
+        Query query = new Query(where("_id").is(id).and("userId").is(userId));
+        if (expectedVersion != null) {
+            query.addCriteria(Versions.is(expectedVersion));
         }
+        Update update = new Update()
+                .set("content", postDetails.getContent())
+                .set("updatedAt", LocalDateTime.now())
+                .inc(Versions.FIELD, 1);
 
-        post.setContent(postDetails.getContent());
-        post.setUpdatedAt(LocalDateTime.now());
-
-        return postRepository.save(post);
+        Post updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Post.class);
+        if (updated == null) {
+            // Only a failed update pays for a second query, to report why it failed
+            Post current = postRepository.findVersionById(id)
+                    .orElseThrow(() -> new RuntimeException("Post not found with id: " + id));
+            if (!userId.equals(current.getUserId())) {
+                throw new RuntimeException("You can only update your own posts");
+            }
+            throw new PreconditionFailedException("Post has been modified since version " + expectedVersion);
+        }
+        return updated;
     }
 
     public void deletePost(String id, String userId) {
@@ -58,7 +192,62 @@ public class PostService {
             throw new RuntimeException("You can only delete your own posts");
         }
 
-        postRepository.deleteById(id);
+        // Only the request that actually removed it decrements the counter
+        if (mongoTemplate.remove(new Query(where("_id").is(id)), Post.class).getDeletedCount() > 0) {
+            recordPostRemoved(post);
+            courseStatsService.postRemoved(post.getCourseId());
+        }
+    }
+
+    /**
+     * Discussion activity (postCount, lastPostAt, lastPostAuthor). updatedAt moves too, so the
+     * discussion's ETag changes; its version does not, so pending edits are not rejected.
+     */
+    private void recordPostAdded(Post post) {
+        if (post.getDiscussionId() == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // The new post is normally the latest: one update, only if nothing newer was recorded
+        Query isLatest = new Query(where("_id").is(post.getDiscussionId()))
+                .addCriteria(new Criteria().orOperator(
+                        where("lastPostAt").lt(post.getCreatedAt()),
+                        where("lastPostAt").is(null)));
+        long matched = mongoTemplate.updateFirst(isLatest, new Update()
+                .inc("postCount", 1)
+                .set("lastPostAt", post.getCreatedAt())
+                .set("lastPostAuthor", post.getUserId())
+                .set("updatedAt", now), Discussion.class).getMatchedCount();
+        if (matched == 0) {
+            mongoTemplate.updateFirst(new Query(where("_id").is(post.getDiscussionId())),
+                    new Update().inc("postCount", 1).set("updatedAt", now), Discussion.class);
+        }
+    }
+
+    private void recordPostRemoved(Post post) {
+        if (post.getDiscussionId() == null) {
+            return;
+        }
+        Query discussionQuery = new Query(where("_id").is(post.getDiscussionId()));
+        discussionQuery.fields().include("createdAt").include("lastPostAt");
+        Discussion discussion = mongoTemplate.findAndModify(discussionQuery,
+                new Update().inc("postCount", -1).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), Discussion.class);
+        if (discussion == null || !Objects.equals(discussion.getLastPostAt(), post.getCreatedAt())) {
+            return;
+        }
+
+        // The latest post was removed: fall back to the newest remaining one ({ discussionId, createdAt } index)
+        Query newestQuery = new Query(where("discussionId").is(post.getDiscussionId()))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        newestQuery.fields().include("createdAt").include("userId");
+        Post newest = mongoTemplate.findOne(newestQuery, Post.class);
+        Update update = newest != null
+                ? new Update().set("lastPostAt", newest.getCreatedAt()).set("lastPostAuthor", newest.getUserId())
+                : new Update().set("lastPostAt", discussion.getCreatedAt()).unset("lastPostAuthor");
+        // Skipped if a newer post has been recorded in the meantime
+        mongoTemplate.updateFirst(new Query(where("_id").is(post.getDiscussionId())
+                .and("lastPostAt").is(post.getCreatedAt())), update, Discussion.class);
     }
 }
 
@@ -0,0 +1,114 @@
+package com.example.todo.service;
+
+import com.example.todo.model.RefreshToken;
+import com.example.todo.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ * Each refresh token can be used once: using it revokes it (ROTATED) and a new one is issued.
+ * Presenting a rotated token again after jwt.refresh-reuse-grace-ms is treated as theft and
+ * revokes every refresh token of that user. Within the grace window (e.g. two browser tabs
+ * refreshing with the same stored token at once) and for tokens revoked by logout, the
+ * request is only rejected.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MongoTemplate mongoTemplate;
+    private final long refreshExpirationMillis;
+    private final long reuseGraceMillis;
+
+    @Autowired
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            MongoTemplate mongoTemplate,
+            @Value("${jwt.refresh-expiration:2592000000}") long refreshExpirationMillis,
+            @Value("${jwt.refresh-reuse-grace-ms:10000}") long reuseGraceMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.refreshExpirationMillis = refreshExpirationMillis;
+        this.reuseGraceMillis = reuseGraceMillis;
+    }
+
+    public String issue(String userId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = B64.encodeToString(bytes);
+
+        Date now = new Date();
+        refreshTokenRepository.save(new RefreshToken(
+                hash(rawToken), userId, now, new Date(now.getTime() + refreshExpirationMillis)));
+        return rawToken;
+    }
+
+    /**
+     * Consumes a refresh token and returns the id of its user.
+     * Throws RuntimeException if the token is unknown, expired or was already used.
+     */
+    public String consume(String rawToken) {
+        String tokenHash = hash(rawToken);
+        Date now = new Date();
+
+        // One round trip: only the request that wins the race gets the (old) document back
+        Query active = new Query(where("tokenHash").is(tokenHash).and("revoked").is(false).and("expiresAt").gt(now));
+        active.fields().include("userId");
+        RefreshToken consumed = mongoTemplate.findAndModify(active, new Update()
+                .set("revoked", true)
+                .set("revokedReason", RefreshToken.ROTATED)
+                .set("revokedAt", now), RefreshToken.class);
+        if (consumed != null) {
+            return consumed.getUserId();
+        }
+
+        Optional<RefreshToken> existing = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (existing.isPresent() && RefreshToken.ROTATED.equals(existing.get().getRevokedReason())) {
+            RefreshToken token = existing.get();
+            if (token.getRevokedAt() != null && now.getTime() - token.getRevokedAt().getTime() <= reuseGraceMillis) {
+                // e.g. a second tab refreshing with the same token: it picks up the new one from storage
+                log.debug("Refresh token of user {} reused within the grace window", token.getUserId());
+            } else {
+                // Reuse of a rotated token: someone else holds a copy, end every session of this user
+                long revoked = refreshTokenRepository.revokeAllByUserId(token.getUserId(), now, RefreshToken.REUSE_DETECTED);
+                log.warn("Refresh token reuse detected for user {}, revoked {} tokens", token.getUserId(), revoked);
+            }
+        }
+        throw new RuntimeException("Invalid refresh token");
+    }
+
+    public void revoke(String rawToken) {
+        refreshTokenRepository.revokeIfActive(hash(rawToken), new Date(), RefreshToken.LOGGED_OUT);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return B64.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.todo.service;
+
+import com.example.todo.model.RevokedToken;
+import com.example.todo.repository.RevokedTokenRepository;
+import com.example.todo.util.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Tracks revoked access tokens (by jti).
+ *
+ * Revocations are stored in the revoked_tokens collection and mirrored in an
+ * in-memory Bloom filter that every node rebuilds from Mongo on a fixed delay.
+ * isRevoked() is a few memory reads for almost every request; only a filter hit
+ * (a revoked token or a rare false positive) is confirmed against Mongo, and that
+ * answer is cached until the next rebuild.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final double falsePositiveRate;
+    private final int minCapacity;
+
+    private volatile BloomFilter filter;
+    // Revocations made on this node since the last rebuild started (jti -> revokedAt millis)
+    private final Map<String, Long> recentRevocations = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> confirmed;
+    private final Counter confirmations;
+
+    @Autowired
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${jwt.revocation.min-capacity:10000}") int minCapacity,
+            @Value("${jwt.revocation.rebuild-interval-ms:60000}") long rebuildIntervalMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = minCapacity;
+        this.filter = BloomFilter.create(minCapacity, falsePositiveRate);
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(rebuildIntervalMillis))
+                .build();
+        this.confirmations = Counter.builder("auth.token.revocation.confirmations")
+                .description("Bloom filter hits that were confirmed against Mongo")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revocation.filter.bits", this, s -> s.filter.bitSize())
+                .description("Size of the revoked-token Bloom filter in bits")
+                .register(meterRegistry);
+    }
+
+    public void revoke(String jti, String userId, Date expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.before(new Date())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, userId, expiresAt));
+        recentRevocations.put(jti, System.currentTimeMillis());
+        filter.put(jti);
+        confirmed.invalidate(jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return confirmed.get(jti, id -> {
+            confirmations.increment();
+            return revokedTokenRepository.existsById(id);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        Date now = new Date(startedAt);
+        try {
+            long count = revokedTokenRepository.countByExpiresAtAfter(now);
+            BloomFilter next = BloomFilter.create(Math.max(minCapacity, count * 2), falsePositiveRate);
+            try (Stream<RevokedToken> ids = revokedTokenRepository.streamActiveIds(now)) {
+                ids.forEach(token -> next.put(token.getId()));
+            }
+
+            // Swap first, then replay local revocations so none made during the rebuild are lost
+            filter = next;
+            recentRevocations.forEach((jti, revokedAt) -> next.put(jti));
+            recentRevocations.values().removeIf(revokedAt -> revokedAt < startedAt);
+            confirmed.invalidateAll();
+        } catch (RuntimeException e) {
+            // Keep serving from the previous filter; it still contains every local revocation
+            log.warn("Could not rebuild revoked-token filter: {}", e.getMessage());
+        }
+    }
+}
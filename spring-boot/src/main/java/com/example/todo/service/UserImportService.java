@@ -0,0 +1,413 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.SignupRequest;
+import com.example.todo.dto.UserImportResult;
+import com.example.todo.exception.TooManyRequestsException;
+import com.example.todo.model.User;
+import com.example.todo.repository.UserRepository;
+import com.example.todo.util.Emails;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user import from CSV or NDJSON.
+ *
+ * The input is read and processed one batch at a time, so memory does not grow with
+ * the file size. Per batch: rows are validated, emails are checked against the
+ * database with a single $in query, passwords are hashed in parallel on the shared
+ * hashing pool, and the users are written with one unordered bulk insert.
+ * One result line per row is written to the output as soon as its batch is done.
+ */
+@Service
+public class UserImportService {
+
+    private static final long REJECTED_RETRY_MILLIS = 50;
+    private static final int MAX_REJECTED_RETRIES = 200;
+
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PasswordHashingService passwordHashingService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int hashingParallelism;
+
+    @Autowired
+    public UserImportService(
+            UserRepository userRepository,
+            MongoTemplate mongoTemplate,
+            PasswordHashingService passwordHashingService,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${users.import.batch-size:500}") int batchSize,
+            @Value("${users.import.hashing-parallelism:0}") int hashingParallelism) {
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.passwordHashingService = passwordHashingService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        // Default: half the cores, so signins keep getting hashing threads during an import
+        this.hashingParallelism = hashingParallelism > 0
+                ? hashingParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * Imports every row of the input and writes one NDJSON result per row, followed by a summary line.
+     *
+     * @param ndjson true for NDJSON input, false for CSV with a header row
+     *               (email,password,firstName,lastName[,role])
+     */
+    public void importUsers(InputStream input, boolean ndjson, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowReader rows = ndjson ? new NdjsonRowReader(reader, objectMapper) : new CsvRowReader(reader);
+        Map<String, Long> totals = new HashMap<>();
+
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        ImportRow row;
+        while ((row = rows.next()) != null) {
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                writeResults(processBatch(batch), totals, output);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeResults(processBatch(batch), totals, output);
+        }
+
+        Map<String, Object> summary = new HashMap<>(totals);
+        summary.put("summary", true);
+        output.write(objectMapper.writeValueAsBytes(summary));
+        output.write('\n');
+        output.flush();
+    }
+
+    private List<UserImportResult> processBatch(List<ImportRow> batch) {
+        UserImportResult[] results = new UserImportResult[batch.size()];
+
+        // 1. Validate and drop duplicates inside the batch itself
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            ImportRow row = batch.get(i);
+            String error = row.parseError != null ? row.parseError : validate(row);
+            if (error != null) {
+                results[i] = result(row, UserImportResult.INVALID, null, error);
+            } else if (!batchEmails.add(row.request.getEmail())) {
+                results[i] = result(row, UserImportResult.DUPLICATE, null, "Email appears more than once in the file");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // 2. One $in query for every email of the batch
+        Set<String> existing = batchEmails.isEmpty() ? Set.of() : userRepository.findEmailsIn(batchEmails).stream()
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+
+        // 3. Hash the remaining passwords in parallel on the hashing pool
+        List<Integer> toInsert = new ArrayList<>();
+        List<CompletableFuture<String>> hashes = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(hashingParallelism);
+        for (int i : candidates) {
+            ImportRow row = batch.get(i);
+            if (existing.contains(row.request.getEmail())) {
+                results[i] = result(row, UserImportResult.DUPLICATE, null, "User with this email already exists");
+                continue;
+            }
+            toInsert.add(i);
+            hashes.add(hash(row.request.getPassword(), inFlight));
+        }
+
+        // 4. Build the documents with client-side ids and insert them unordered
+        List<User> users = new ArrayList<>(toInsert.size());
+        List<Integer> userRows = new ArrayList<>(toInsert.size());
+        for (int n = 0; n < toInsert.size(); n++) {
+            int i = toInsert.get(n);
+            ImportRow row = batch.get(i);
+            try {
+                users.add(newUser(row, hashes.get(n).join()));
+                userRows.add(i);
+            } catch (CompletionException e) {
+                results[i] = result(row, UserImportResult.FAILED, null, "Password hashing failed: " + e.getCause().getMessage());
+            }
+        }
+
+        Map<Integer, BulkWriteError> writeErrors = insertUnordered(users);
+        for (int n = 0; n < users.size(); n++) {
+            int i = userRows.get(n);
+            BulkWriteError error = writeErrors.get(n);
+            if (error == null) {
+                results[i] = result(batch.get(i), UserImportResult.CREATED, users.get(n).getId(), null);
+            } else if (error.getCode() == 11000) {
+                results[i] = result(batch.get(i), UserImportResult.DUPLICATE, null, "User with this email already exists");
+            } else {
+                results[i] = result(batch.get(i), UserImportResult.FAILED, null, error.getMessage());
+            }
+        }
+
+        return List.of(results);
+    }
+
+    // Waits for a free slot and retries while the shared hashing queue is full
+    private CompletableFuture<String> hash(String rawPassword, Semaphore inFlight) {
+        for (int attempt = 0; ; attempt++) {
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<String> future = passwordHashingService.encode(rawPassword);
+            future.whenComplete((hash, ex) -> inFlight.release());
+
+            boolean rejected = future.isCompletedExceptionally()
+                    && future.handle((hash, ex) -> ex instanceof TooManyRequestsException).join();
+            if (!rejected || attempt == MAX_REJECTED_RETRIES) {
+                return future;
+            }
+            try {
+                Thread.sleep(REJECTED_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return future;
+            }
+        }
+    }
+
+    private Map<Integer, BulkWriteError> insertUnordered(List<User> users) {
+        Map<Integer, BulkWriteError> errors = new HashMap<>();
+        if (users.isEmpty()) {
+            return errors;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)
+                    .insert(users)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every other document of the batch was still inserted
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error);
+            }
+        }
+        return errors;
+    }
+
+    private String validate(ImportRow row) {
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(row.request);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (!"USER".equals(row.role) && !"ADMIN".equals(row.role)) {
+            return "Role must be USER or ADMIN";
+        }
+        return null;
+    }
+
+    private static User newUser(ImportRow row, String passwordHash) {
+        User user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setEmail(row.request.getEmail());
+        user.setPassword(passwordHash);
+        user.setFirstName(row.request.getFirstName());
+        user.setLastName(row.request.getLastName());
+        user.setRole(row.role);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private static UserImportResult result(ImportRow row, String status, String id, String message) {
+        String email = row.request != null ? row.request.getEmail() : null;
+        return new UserImportResult(row.rowNumber, email, status, id, message);
+    }
+
+    private void writeResults(List<UserImportResult> results, Map<String, Long> totals, OutputStream output)
+            throws IOException {
+        for (UserImportResult result : results) {
+            totals.merge(result.getStatus(), 1L, Long::sum);
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    // ============================================================================
+    // Input formats
+    // ============================================================================
+
+    private static final class ImportRow {
+        final long rowNumber;
+        final SignupRequest request;
+        final String role;
+        final String parseError;
+
+        ImportRow(long rowNumber, SignupRequest request, String role, String parseError) {
+            this.rowNumber = rowNumber;
+            this.request = request;
+            this.role = role;
+            this.parseError = parseError;
+        }
+
+        static ImportRow of(long rowNumber, String email, String password, String firstName, String lastName, String role) {
+            SignupRequest request = new SignupRequest();
+            request.setEmail(Emails.normalize(email));
+            request.setPassword(password);
+            request.setFirstName(firstName != null ? firstName.trim() : null);
+            request.setLastName(lastName != null ? lastName.trim() : null);
+            String normalizedRole = role == null || role.isBlank() ? "USER" : role.trim().toUpperCase();
+            return new ImportRow(rowNumber, request, normalizedRole, null);
+        }
+
+        static ImportRow error(long rowNumber, String message) {
+            return new ImportRow(rowNumber, null, null, message);
+        }
+    }
+
+    private interface RowReader {
+        /** Returns the next row, or null at the end of the input. */
+        ImportRow next() throws IOException;
+    }
+
+    // One JSON object per line: {"email":..,"password":..,"firstName":..,"lastName":..,"role":..}
+    private static final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long rowNumber;
+
+        NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowNumber++;
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    return ImportRow.of(rowNumber, text(node, "email"), text(node, "password"),
+                            text(node, "firstName"), text(node, "lastName"), text(node, "role"));
+                } catch (IOException e) {
+                    return ImportRow.error(rowNumber, "Invalid JSON");
+                }
+            }
+            return null;
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+
+    // CSV with a header row; columns are matched by name, quoted fields may contain commas and ""
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private Map<String, Integer> columns;
+        private long rowNumber;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (columns == null) {
+                String header = readNonBlankLine();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                List<String> names = parse(header.startsWith("\uFEFF") ? header.substring(1) : header);
+                for (int i = 0; i < names.size(); i++) {
+                    columns.put(names.get(i).trim(), i);
+                }
+                if (!columns.keySet().containsAll(List.of("email", "password", "firstName", "lastName"))) {
+                    throw new RuntimeException("CSV header must contain email, password, firstName and lastName");
+                }
+            }
+
+            String line = readNonBlankLine();
+            if (line == null) {
+                return null;
+            }
+            rowNumber++;
+            List<String> values = parse(line);
+            return ImportRow.of(rowNumber, column(values, "email"), column(values, "password"),
+                    column(values, "firstName"), column(values, "lastName"), column(values, "role"));
+        }
+
+        private String readNonBlankLine() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        private String column(List<String> values, String name) {
+            Integer index = columns.get(name);
+            return index == null || index >= values.size() ? null : values.get(index);
+        }
+
+        private static List<String> parse(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (quoted) {
+                    if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (ch == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(ch);
+                }
+            }
+            values.add(current.toString());
+            return values;
+        }
+    }
+}
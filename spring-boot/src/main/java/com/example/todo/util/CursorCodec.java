@@ -0,0 +1,78 @@
+package com.example.todo.util;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination.
+ *
+ * A cursor is the base64url form of "c1:" + the _id of the last item returned, or for
+ * lists ordered by a timestamp, "c2:" + that timestamp (epoch millis) + ":" + the _id.
+ * Clients must treat it as opaque; the version prefix lets the format change later.
+ */
+public final class CursorCodec {
+
+    private static final String PREFIX = "c1:";
+    private static final String KEYSET_PREFIX = "c2:";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String lastId) {
+        return ENCODER.encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the _id stored in the cursor.
+     * Throws IllegalArgumentException (mapped to 400) if the cursor was not produced by encode().
+     */
+    public static String decode(String cursor) {
+        try {
+            String value = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX) && ObjectId.isValid(value.substring(PREFIX.length()))) {
+                return value.substring(PREFIX.length());
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    /**
+     * Position after an item of a list ordered by (timestamp, _id).
+     */
+    public record Keyset(LocalDateTime sortValue, String id) {
+    }
+
+    public static String encode(LocalDateTime sortValue, String lastId) {
+        long millis = sortValue == null ? 0 : sortValue.toInstant(ZoneOffset.UTC).toEpochMilli();
+        return ENCODER.encodeToString((KEYSET_PREFIX + millis + ":" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Same as decode, for cursors produced by encode(LocalDateTime, String).
+     */
+    public static Keyset decodeKeyset(String cursor) {
+        try {
+            String value = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':', KEYSET_PREFIX.length());
+            if (value.startsWith(KEYSET_PREFIX) && separator > 0) {
+                long millis = Long.parseLong(value.substring(KEYSET_PREFIX.length(), separator));
+                String id = value.substring(separator + 1);
+                if (ObjectId.isValid(id)) {
+                    return new Keyset(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC), id);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through (also NumberFormatException)
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
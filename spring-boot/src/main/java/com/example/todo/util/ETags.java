@@ -0,0 +1,132 @@
+package com.example.todo.util;
+
+import com.example.todo.exception.PreconditionFailedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Strong ETags for conditional GETs (If-None-Match -> 304 Not Modified).
+ *
+ * A document's ETag is its id, updatedAt (millisecond precision, which is what Mongo
+ * stores) and version; If-Match on updates must name the same id and is checked against
+ * the version. A list's ETag is the item count plus a hash over every item's
+ * id and updatedAt, so adding, changing or removing any item changes it. Both can
+ * be computed from an { _id, updatedAt } projection, before the full documents are loaded.
+ */
+public final class ETags {
+
+    // Browsers may store the response but must revalidate it on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    public static String of(String id, LocalDateTime updatedAt, Long version) {
+        return "\"" + id + "-" + Long.toString(millis(updatedAt), 36) + "-" + Versions.of(version) + "\"";
+    }
+
+    /**
+     * The version an If-Match header refers to, or null if the update is unconditional
+     * (no header, or "*"). Accepts an ETag of the document with this id or a bare version ("3").
+     * Weak or unparseable tags and ETags of other documents can never match (RFC 9110 strong
+     * comparison), so they fail with 412.
+     */
+    public static Long ifMatchVersion(String ifMatch, String id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || tag.indexOf('"', 1) != tag.length() - 1) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag");
+        }
+        tag = tag.substring(1, tag.length() - 1);
+        int versionStart = tag.lastIndexOf('-') + 1;
+        if (versionStart > 0) {
+            // "<id>-<updatedAt>-<version>": the id must be this document's
+            String idAndUpdatedAt = tag.substring(0, versionStart - 1);
+            int updatedAtStart = idAndUpdatedAt.lastIndexOf('-');
+            if (updatedAtStart < 0 || !idAndUpdatedAt.substring(0, updatedAtStart).equals(id)) {
+                throw new PreconditionFailedException("If-Match refers to another resource");
+            }
+        }
+        try {
+            return Long.parseLong(tag.substring(versionStart));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version");
+        }
+    }
+
+    public static <T> String ofList(List<T> items, Function<T, String> id, Function<T, LocalDateTime> updatedAt) {
+        List<String> versions = new ArrayList<>(items.size());
+        for (T item : items) {
+            versions.add(id.apply(item) + ":" + millis(updatedAt.apply(item)));
+        }
+        // Order-independent: the projection and the full query need not use the same plan
+        Collections.sort(versions);
+
+        MessageDigest digest = sha256();
+        for (String version : versions) {
+            digest.update(version.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        byte[] hash = digest.digest();
+        return "\"" + items.size() + "-"
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+    }
+
+    /**
+     * True if the If-None-Match header matches the ETag (weak comparison, as RFC 9110 requires for GET).
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static <T> ResponseEntity<T> ok(T body, String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+
+    // No body: nothing is loaded or serialized beyond what was needed for the ETag
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    private static long millis(LocalDateTime updatedAt) {
+        return updatedAt == null ? 0 : updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.todo.util;
+
+import java.util.Locale;
+
+/**
+ * Canonical form of an email address, used for storage, lookups and the unique index
+ * on users.email, so that "Jane@Example.com " and "jane@example.com" are the same account.
+ */
+public final class Emails {
+
+    private Emails() {
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
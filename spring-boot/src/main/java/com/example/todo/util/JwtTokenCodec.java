@@ -0,0 +1,237 @@
+package com.example.todo.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Allocation-light HMAC-SHA codec for the fixed claim set issued by JwtUtil
+ * ({@code sub, email, role, iat, exp, jti}).
+ *
+ * <p>Produces exactly the same bytes as the jjwt builder (same header, same claim
+ * order, same Base64URL encoding), so tokens from either path are interchangeable.
+ * The HMAC algorithm follows the key length the same way jjwt does (HS256/384/512).
+ *
+ * <p>{@link #encode} and {@link #decode} return {@code null} whenever the input does
+ * not have the exact expected shape (escaped characters, extra or reordered claims,
+ * a different header, ...). Callers then fall back to jjwt.
+ */
+public final class JwtTokenCodec {
+
+    private static final Base64.Encoder B64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    private static final byte[] SUB = bytes("{\"sub\":\"");
+    private static final byte[] EMAIL = bytes("\",\"email\":\"");
+    private static final byte[] ROLE = bytes("\",\"role\":\"");
+    private static final byte[] IAT = bytes("\",\"iat\":");
+    private static final byte[] EXP = bytes(",\"exp\":");
+    private static final byte[] JTI = bytes(",\"jti\":\"");
+
+    private final SecretKey key;
+    private final String encodedHeader;
+    private final ThreadLocal<Mac> macs;
+
+    public JwtTokenCodec(SecretKey key) {
+        this.key = key;
+        this.encodedHeader = B64_ENCODER.encodeToString(
+                bytes("{\"alg\":\"" + jwtAlgorithm(key.getAlgorithm()) + "\"}"));
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Builds and signs a token. Returns {@code null} if a claim value would need
+     * JSON escaping, so that the caller can let jjwt produce the token instead.
+     */
+    public String encode(String subject, String email, String role, long issuedAtSeconds, long expiresAtSeconds,
+                         String tokenId) {
+        if (needsEscaping(subject) || needsEscaping(email) || needsEscaping(role) || needsEscaping(tokenId)) {
+            return null;
+        }
+
+        String payloadJson = "{\"sub\":\"" + subject
+                + "\",\"email\":\"" + email
+                + "\",\"role\":\"" + role
+                + "\",\"iat\":" + issuedAtSeconds
+                + ",\"exp\":" + expiresAtSeconds
+                + ",\"jti\":\"" + tokenId + "\"}";
+        String signingInput = encodedHeader + '.' + B64_ENCODER.encodeToString(bytes(payloadJson));
+
+        byte[] signature = macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + '.' + B64_ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Verifies and decodes a token of the expected shape.
+     *
+     * @return the claims, or {@code null} if the token has a shape this codec does not handle
+     * @throws SignatureException if the signature does not match
+     * @throws ExpiredJwtException if the token is past its {@code exp}
+     */
+    public Claims decode(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+        if (firstDot != encodedHeader.length() || !token.startsWith(encodedHeader)) {
+            return null;
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = B64_DECODER.decode(token.substring(firstDot + 1, secondDot));
+            signature = B64_DECODER.decode(token.substring(secondDot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Claims claims = parsePayload(payload);
+        if (claims == null) {
+            return null;
+        }
+
+        Mac mac = macs.get();
+        mac.update(token.getBytes(StandardCharsets.US_ASCII), 0, secondDot);
+        if (!MessageDigest.isEqual(mac.doFinal(), signature)) {
+            throw new SignatureException("JWT signature does not match locally computed signature.");
+        }
+
+        Date expiration = claims.getExpiration();
+        if (System.currentTimeMillis() > expiration.getTime()) {
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + expiration.toInstant() + ".");
+        }
+        return claims;
+    }
+
+    // Parses {"sub":"..","email":"..","role":"..","iat":N,"exp":N,"jti":".."} without building a JSON tree
+    private static Claims parsePayload(byte[] json) {
+        Cursor c = new Cursor(json);
+        if (!c.expect(SUB)) return null;
+        String subject = c.readString();
+        if (subject == null || !c.expect(EMAIL)) return null;
+        String email = c.readString();
+        if (email == null || !c.expect(ROLE)) return null;
+        String role = c.readString();
+        if (role == null || !c.expect(IAT)) return null;
+        long issuedAt = c.readLong();
+        if (issuedAt < 0 || !c.expect(EXP)) return null;
+        long expiresAt = c.readLong();
+        if (expiresAt < 0 || !c.expect(JTI)) return null;
+        String tokenId = c.readString();
+        if (tokenId == null || !c.expect((byte) '"') || !c.expect((byte) '}') || !c.atEnd()) return null;
+
+        return Jwts.claims()
+                .subject(subject)
+                .add("email", email)
+                .add("role", role)
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date(expiresAt * 1000))
+                .id(tokenId)
+                .build();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + key.getAlgorithm(), e);
+        }
+    }
+
+    private static String jwtAlgorithm(String javaAlgorithm) {
+        switch (javaAlgorithm) {
+            case "HmacSHA256":
+                return "HS256";
+            case "HmacSHA384":
+                return "HS384";
+            case "HmacSHA512":
+                return "HS512";
+            default:
+                throw new IllegalArgumentException("Unsupported signing key algorithm: " + javaAlgorithm);
+        }
+    }
+
+    private static boolean needsEscaping(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch < 0x20 || ch == '"' || ch == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Cursor {
+        private final byte[] json;
+        private int pos;
+
+        Cursor(byte[] json) {
+            this.json = json;
+        }
+
+        boolean expect(byte[] literal) {
+            if (pos + literal.length > json.length) {
+                return false;
+            }
+            for (byte b : literal) {
+                if (json[pos++] != b) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean expect(byte b) {
+            return pos < json.length && json[pos++] == b;
+        }
+
+        boolean atEnd() {
+            return pos == json.length;
+        }
+
+        // Reads up to the closing quote; escaped strings are left to jjwt
+        String readString() {
+            int start = pos;
+            while (pos < json.length) {
+                byte b = json[pos];
+                if (b == '"') {
+                    return new String(json, start, pos - start, StandardCharsets.UTF_8);
+                }
+                if (b == '\\' || (b >= 0 && b < 0x20)) {
+                    return null;
+                }
+                pos++;
+            }
+            return null;
+        }
+
+        long readLong() {
+            int start = pos;
+            long value = 0;
+            while (pos < json.length && json[pos] >= '0' && json[pos] <= '9' && pos - start < 18) {
+                value = value * 10 + (json[pos++] - '0');
+            }
+            return pos == start ? -1 : value;
+        }
+    }
+}
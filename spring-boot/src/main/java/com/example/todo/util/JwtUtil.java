@@ -13,6 +13,16 @@ package com.example.todo.util;
 // ============================================================================
 // IMPORTS - These bring in classes from other libraries that we need to use
 // ============================================================================
+// Caffeine: High-performance in-memory cache (bounded, lock-free reads)
+// NODE.JS EQUIVALENT: Like the 'lru-cache' package
+//   const LRU = require('lru-cache');
+//   const cache = new LRU({ max: 10000, ttl: ... });
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
 // Claims: Represents the data (claims) stored inside a JWT token (like user info)
 // NODE.JS EQUIVALENT: Like importing from 'jsonwebtoken' library
 //   const jwt = require('jsonwebtoken');
@@ -26,12 +36,28 @@ import io.jsonwebtoken.Claims;
 //   // Jwts.parser() is like: jwt.verify(token, secret)
 import io.jsonwebtoken.Jwts;
 
+// JwtParser: A configured, thread-safe token parser that can be reused
+// NODE.JS EQUIVALENT: Like keeping the options object for jwt.verify() around
+import io.jsonwebtoken.JwtParser;
+
 // Keys: Utility class for creating cryptographic keys used to sign/verify tokens
 // NODE.JS EQUIVALENT: Like using crypto module to create keys
 //   const crypto = require('crypto');
 //   const key = crypto.createHmac('sha256', secret);
 import io.jsonwebtoken.security.Keys;
 
+// MeterRegistry / CaffeineCacheMetrics: Publish cache counters to /actuator/metrics
+// NODE.JS EQUIVALENT: Like registering counters with 'prom-client'
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// @PostConstruct: Runs once after Spring has injected all @Value fields
+// NODE.JS EQUIVALENT: Like doing setup work at the end of a constructor
+import jakarta.annotation.PostConstruct;
+
+// @Autowired: Asks Spring to inject another bean into a field
+import org.springframework.beans.factory.annotation.Autowired;
+
 // @Value: Spring annotation to inject values from application.properties file
 // NODE.JS EQUIVALENT: Like using process.env or config files
 //   // In Node.js you'd do:
@@ -58,11 +84,19 @@ import org.springframework.stereotype.Component;
 //   const key = crypto.createSecretKey(Buffer.from(secret, 'utf8'));
 import javax.crypto.SecretKey;
 
+// MessageDigest: Computes SHA-256 digests (used as the cache key for a token)
+// NODE.JS EQUIVALENT: crypto.createHash('sha256').update(token).digest()
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 // StandardCharsets: Provides standard character encodings (like UTF-8)
 // NODE.JS EQUIVALENT: Like specifying encoding in Buffer
 //   Buffer.from(secret, 'utf8')  // 'utf8' is the charset
 import java.nio.charset.StandardCharsets;
 
+// Base64: Encodes the digest bytes into a compact String key
+import java.util.Base64;
+
 // Date: Represents a specific point in time (for token expiration)
 // NODE.JS EQUIVALENT: JavaScript Date object (same concept!)
 //   const now = new Date();
@@ -81,6 +115,13 @@ import java.util.Date;
 //   getClaim(token, (claims) => claims.email);
 import java.util.function.Function;
 
+// TimeUnit: Converts between milliseconds and nanoseconds for cache expiry
+import java.util.concurrent.TimeUnit;
+
+// UUID: Random unique id for each token ("jti"), used to revoke a single token
+// NODE.JS EQUIVALENT: const { randomUUID } = require('crypto');
+import java.util.UUID;
+
 // ============================================================================
 // CLASS DECLARATION
 // ============================================================================
@@ -137,14 +178,95 @@ public class JwtUtil {
                             // NODE.JS: Like a class property: this.secret = '...';
 
     // @Value: Injects token expiration time from application.properties
-    // Default: 86400000 milliseconds = 24 hours (24 * 60 * 60 * 1000)
-    // This determines how long a token remains valid before it expires
+    // Default: 900000 milliseconds = 15 minutes (15 * 60 * 1000)
+    // Access tokens are short-lived; clients get a new one from /api/auth/refresh
+    // using their refresh token (see RefreshTokenService) instead of logging in again.
     //
     // NODE.JS EQUIVALENT:
-    //   const expiration = parseInt(process.env.JWT_EXPIRATION) || 86400000;
-    @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
+    //   const expiration = parseInt(process.env.JWT_EXPIRATION) || 900000;
+    @Value("${jwt.expiration:900000}") // 15 minutes in milliseconds
     private Long expiration;  // Stores the expiration time in milliseconds
-                              // NODE.JS: Like: this.expiration = 86400000;
+                              // NODE.JS: Like: this.expiration = 900000;
+
+    // @Value: Maximum number of verified tokens kept in memory
+    // Each entry is small (digest key + decoded claims), so 10,000 entries is a few MB
+    // NODE.JS EQUIVALENT:
+    //   const maxCachedTokens = parseInt(process.env.JWT_CACHE_MAX_SIZE) || 10000;
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    // @Value: Use the specialized JwtTokenCodec for our fixed claim set
+    // (sub, email, role, iat, exp). Set to false to always go through jjwt.
+    // Tokens are byte-for-byte identical either way.
+    @Value("${jwt.fast-codec.enabled:true}")
+    private boolean fastCodecEnabled;
+
+    // MeterRegistry: Where the cache hit/miss/eviction counters are published
+    // (visible under /actuator/metrics/cache.gets?tag=cache:jwtVerifiedTokens)
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // ============================================================================
+    // REUSABLE STATE (built ONCE at startup instead of on every call)
+    // ============================================================================
+    // Before: every call paid for Keys.hmacShaKeyFor() and Jwts.parser().build().
+    // Both objects are immutable and thread-safe, so we create them once.
+    //
+    // NODE.JS EQUIVALENT:
+    //   this.key = crypto.createSecretKey(Buffer.from(secret, 'utf8'));
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Allocation-light encoder/decoder for our own tokens (null when disabled).
+    // Anything it does not recognise is handed to jjwt (the fallback path).
+    private JwtTokenCodec codec;
+
+    // Cache of tokens that have ALREADY been verified, keyed by the SHA-256 digest
+    // of the token. Each entry holds the decoded claims and is evicted exactly at
+    // the token's own "exp" time, so an expired token can never be served from it.
+    // Caffeine is lock-free for reads and lock-striped for writes, so it does not
+    // become a contention point on many-core machines.
+    //
+    // NODE.JS EQUIVALENT:
+    //   this.verifiedTokens = new LRU({ max: 10000, ttlAutopurge: true });
+    //   this.verifiedTokens.set(digest, claims, { ttl: claims.exp * 1000 - Date.now() });
+    private Cache<String, Claims> verifiedTokens;
+
+    // One SHA-256 MessageDigest per thread (MessageDigest is not thread-safe)
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    // ============================================================================
+    // INITIALIZATION: Runs once after Spring injected the @Value fields
+    // ============================================================================
+    //
+    // NODE.JS EQUIVALENT:
+    //   constructor() {
+    //     this.key = crypto.createSecretKey(Buffer.from(this.secret, 'utf8'));
+    //     this.verifiedTokens = new LRU({ max: this.maxCachedTokens });
+    //   }
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.codec = fastCodecEnabled ? new JwtTokenCodec(signingKey) : null;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                // Proactively removes entries when they expire instead of waiting
+                // for the next read/write to notice
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+        }
+    }
 
     // ============================================================================
     // PRIVATE HELPER METHOD
@@ -163,6 +285,12 @@ public class JwtUtil {
     //     // jwt.sign(payload, this.secret) - the library handles key creation
     //   }
     private SecretKey getSigningKey() {
+        // The key is derived once in init(); this is only a fallback in case
+        // the class is used without Spring calling init() first
+        if (signingKey != null) {
+            return signingKey;
+        }
+
         // Keys.hmacShaKeyFor(): Creates a secret key using HMAC-SHA algorithm
         // NODE.JS: crypto.createHmac('sha256', secret)
         
@@ -201,7 +329,8 @@ public class JwtUtil {
     //       email: email,
     //       role: role,
     //       iat: Math.floor(now.getTime() / 1000),      // issued at (in seconds)
-    //       exp: Math.floor(expiryDate.getTime() / 1000) // expiration (in seconds)
+    //       exp: Math.floor(expiryDate.getTime() / 1000), // expiration (in seconds)
+    //       jti: randomUUID()      // token id, so this one token can be revoked
     //     };
     //     
     //     return jwt.sign(payload, this.secret);
@@ -218,6 +347,21 @@ public class JwtUtil {
         // NODE.JS: const expiryDate = new Date(now.getTime() + this.expiration);
         Date expiryDate = new Date(now.getTime() + expiration);
 
+        // Unique token id ("jti"): logout revokes exactly this token by its id
+        // NODE.JS: const jti = crypto.randomUUID();
+        String tokenId = UUID.randomUUID().toString();
+
+        // Fast path: JwtTokenCodec writes the same header and claims as jjwt,
+        // without the generic builder. It returns null for values it does not
+        // handle (e.g. characters that need JSON escaping).
+        // JWT times are whole seconds, exactly like jjwt stores them.
+        if (codec != null) {
+            String token = codec.encode(userId, email, role, now.getTime() / 1000, expiryDate.getTime() / 1000, tokenId);
+            if (token != null) {
+                return token;
+            }
+        }
+
         // Jwts.builder(): Starts building a new JWT token
         // This uses the "builder pattern" - we chain methods together
         // NODE.JS: This is like building an object and then calling jwt.sign()
@@ -232,6 +376,8 @@ public class JwtUtil {
                                               // NODE.JS: payload.iat = Math.floor(now.getTime() / 1000)
                 .expiration(expiryDate)        // Sets when the token will expire
                                               // NODE.JS: payload.exp = Math.floor(expiryDate.getTime() / 1000)
+                .id(tokenId)                  // Sets the token id ("jti") used for revocation
+                                              // NODE.JS: payload.jti = jti
                 .signWith(getSigningKey())     // Signs the token with our secret key
                                               // This ensures the token can't be tampered with
                                               // NODE.JS: jwt.sign(payload, this.secret)
@@ -333,6 +479,24 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    // ============================================================================
+    // PUBLIC METHOD: Verify a token once and return all of its claims
+    // ============================================================================
+
+    // Parses the token, verifies the signature AND the expiration in one pass,
+    // and returns every claim. Callers that need several values (user id, role,
+    // email, expiry) should call this once instead of the getXxxFromToken methods,
+    // each of which re-verifies the whole token.
+    // Throws a JwtException if the token is malformed, tampered with or expired.
+    //
+    // NODE.JS EQUIVALENT:
+    //   parseToken(token) {
+    //     return jwt.verify(token, this.secret); // throws if invalid or expired
+    //   }
+    public Claims parseToken(String token) {
+        return getAllClaimsFromToken(token);
+    }
+
     // ============================================================================
     // PRIVATE HELPER METHOD: Extract all claims from a token
     // ============================================================================
@@ -354,14 +518,34 @@ public class JwtUtil {
     //   // Or if you just want to decode without verification:
     //   return jwt.decode(token);  // But this doesn't verify signature!
     private Claims getAllClaimsFromToken(String token) {
-        // Jwts.parser(): Starts building a token parser
-        // NODE.JS: This is like starting to use jwt.verify()
-        return Jwts.parser()
-                .verifyWith(getSigningKey())   // Sets the key to verify the token's signature
-                                              // If the token was modified, this will fail
-                                              // NODE.JS: jwt.verify(token, this.secret)
-                .build()                       // Builds the parser
-                                              // NODE.JS: Not needed - jwt.verify() does it all
+        // Fast path: the same token was already verified and has not expired yet
+        // Caffeine.get() runs the loader only on a miss, and a token that fails
+        // verification throws from the loader, so it is NEVER cached.
+        // NODE.JS: return cache.get(digest) ?? verifyAndCache(token);
+        if (verifiedTokens != null) {
+            return verifiedTokens.get(digest(token), key -> verifyToken(token));
+        }
+        return verifyToken(token);
+    }
+
+    // Verifies the token's signature and expiry with jjwt (the slow path)
+    private Claims verifyToken(String token) {
+        // Fast path for tokens of our own fixed shape; null means "not our shape",
+        // in which case jjwt below does the full generic parse
+        if (codec != null) {
+            Claims claims = codec.decode(token);
+            if (claims != null) {
+                return claims;
+            }
+        }
+
+        JwtParser parser = jwtParser != null
+                ? jwtParser
+                : Jwts.parser().verifyWith(getSigningKey()).build();
+
+        // The parser was built once in init() with Jwts.parser().verifyWith(key).build()
+        // NODE.JS: This is like calling jwt.verify(token, this.secret)
+        return parser
                 .parseSignedClaims(token)      // Parses the token and verifies its signature
                                               // Throws exception if token is invalid or tampered
                                               // NODE.JS: jwt.verify() does parsing + verification
@@ -468,6 +652,71 @@ public class JwtUtil {
             return false;
         }
     }
+
+    // ============================================================================
+    // PUBLIC METHOD: Access token lifetime
+    // ============================================================================
+
+    // Lifetime of newly issued access tokens in seconds (returned to clients as
+    // "expiresIn" so they know when to call /api/auth/refresh)
+    //
+    // NODE.JS EQUIVALENT:
+    //   getExpirationSeconds() { return Math.floor(this.expiration / 1000); }
+    public long getExpirationSeconds() {
+        return expiration / 1000;
+    }
+
+    // ============================================================================
+    // PUBLIC METHOD: Verified-token cache statistics
+    // ============================================================================
+
+    // Returns hit/miss/eviction counters of the verified-token cache
+    // (the same numbers are also published to /actuator/metrics)
+    //
+    // NODE.JS EQUIVALENT:
+    //   getTokenCacheStats() {
+    //     return { hits: this.hits, misses: this.misses, evictions: this.evictions };
+    //   }
+    public CacheStats getTokenCacheStats() {
+        return verifiedTokens != null ? verifiedTokens.stats() : CacheStats.empty();
+    }
+
+    // ============================================================================
+    // PRIVATE HELPERS: Cache key and per-entry expiry
+    // ============================================================================
+
+    // SHA-256 digest of the token, Base64-encoded (fixed 44-character key)
+    // NODE.JS: crypto.createHash('sha256').update(token).digest('base64')
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    // Tells Caffeine how long each cached token may live: exactly until its "exp"
+    // claim. Reads and updates never extend that lifetime.
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) {
+                return Long.MAX_VALUE;
+            }
+            long remainingMillis = exp.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
 
 
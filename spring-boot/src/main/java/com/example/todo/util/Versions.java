@@ -0,0 +1,26 @@
+package com.example.todo.util;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Optimistic versioning for documents with a "version" field (Course, Discussion, Post).
+ * Every update increments the version; a conditional update only matches the expected one.
+ */
+public final class Versions {
+
+    public static final String FIELD = "version";
+
+    private Versions() {
+    }
+
+    // Documents written before the field existed count as version 0
+    public static long of(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    public static Criteria is(long expected) {
+        return expected == 0
+                ? Criteria.where(FIELD).in(0L, null)
+                : Criteria.where(FIELD).is(expected);
+    }
+}